@@ -16,6 +16,9 @@ val mineCoreLibVersion: String by project
 val xseriesVersion: String by project
 val sirblobmanApiVersion: String by project
 val sirblobmanCombatLogVersion: String by project
+val junitVersion: String by project
+val testcontainersVersion: String by project
+val mysqlConnectorVersion: String by project
 val projectPackageName = "${project.group}.openMentions"
 
 // Configure Java toolchain and compatibility settings
@@ -75,7 +78,15 @@ dependencies {
     // XSeries
     implementation("com.github.cryptomorin:XSeries:${xseriesVersion}")
 
-
+    // JUnit for the unit tests
+    testImplementation(platform("org.junit:junit-bom:${junitVersion}"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    // Testcontainers and the MySQL driver for the database migration tests, skipped without Docker
+    testImplementation(platform("org.testcontainers:testcontainers-bom:${testcontainersVersion}"))
+    testImplementation("org.testcontainers:junit-jupiter")
+    testImplementation("org.testcontainers:mysql")
+    testRuntimeOnly("com.mysql:mysql-connector-j:${mysqlConnectorVersion}")
 }
 
 // Disable the default JAR task
@@ -106,6 +117,11 @@ tasks {
         minecraftVersion("1.21") // Specify the Minecraft version
     }
 
+    // Run the unit tests on the JUnit Platform
+    test {
+        useJUnitPlatform()
+    }
+
     // Configure Java compilation settings
     withType<JavaCompile>().configureEach {
         options.encoding = "UTF-8" // Set the file encoding
@@ -1,11 +1,21 @@
 package io.github.tavstaldev.openMentions;
 
 import io.github.tavstaldev.minecorelib.config.ConfigurationBase;
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.models.EMentionDisplay;
+import io.github.tavstaldev.openMentions.models.EMentionPreference;
+import io.github.tavstaldev.openMentions.models.MentionFormat;
+import io.github.tavstaldev.openMentions.models.PlayerDatabaseData;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class OMConfig extends ConfigurationBase {
 
@@ -16,17 +26,29 @@ public class OMConfig extends ConfigurationBase {
     public boolean checkForUpdates, debug;
 
     public String storageType, storageFilename, storageHost, storageDatabase, storageUsername, storagePassword, storageTablePrefix;
-    public int storagePort;
+    public int storagePort, storageFlushInterval;
+    public boolean storageSparse;
+    public int storageSyncInterval;
+    public int storagePoolSize, storagePoolMinIdle, storageMaxLifetime, storageIdleTimeout, storageConnectionTimeout, storageKeepaliveTime;
+    public boolean storageCachePrepStmts, storageUseServerPrepStmts, storageRewriteBatchedStatements;
+    public int storagePrepStmtCacheSize, storagePrepStmtCacheSqlLimit;
 
     public String defaultDisplay, defaultPreference, defaultSound;
     public double volume, pitch;
     public int mentionCooldown, maxMentionsPerMessage;
-    public boolean allowSelfMention;
+    public boolean allowSelfMention, requireOnline;
+    public int offlineMentionCapacity, offlineMentionExpiry;
+    public int notificationQueueCapacity, notificationTickBudget;
+    public int historySize, historyExcerptLength;
+
+    public int combatTagDuration;
 
     public boolean requireSymbol;
     public List<String> symbols;
     public String defaultFormat;
-    public List<String> permissionBasedFormats;
+    /** Permission based mention formats, in priority order. Parsed once per load and never modified. */
+    public List<MentionFormat> permissionBasedFormats;
+    public int formatRefreshInterval;
 
     @Override
     protected void loadDefaults() {
@@ -50,6 +72,20 @@ public class OMConfig extends ConfigurationBase {
         storageUsername = resolveGet("storage.username", "root");
         storagePassword = resolveGet("storage.password", "ascent");
         storageTablePrefix = resolveGet("storage.tablePrefix", "openmentions");
+        storageFlushInterval = resolveGet("storage.flushInterval", 5);
+        storageSparse = resolveGet("storage.sparse", true);
+        storageSyncInterval = resolveGet("storage.syncInterval", 5);
+        storagePoolSize = resolveGet("storage.pool.maximumPoolSize", 10);
+        storagePoolMinIdle = resolveGet("storage.pool.minimumIdle", 2);
+        storageMaxLifetime = resolveGet("storage.pool.maxLifetime", 1800000);
+        storageIdleTimeout = resolveGet("storage.pool.idleTimeout", 600000);
+        storageConnectionTimeout = resolveGet("storage.pool.connectionTimeout", 10000);
+        storageKeepaliveTime = resolveGet("storage.pool.keepaliveTime", 300000);
+        storageCachePrepStmts = resolveGet("storage.properties.cachePrepStmts", true);
+        storagePrepStmtCacheSize = resolveGet("storage.properties.prepStmtCacheSize", 250);
+        storagePrepStmtCacheSqlLimit = resolveGet("storage.properties.prepStmtCacheSqlLimit", 2048);
+        storageUseServerPrepStmts = resolveGet("storage.properties.useServerPrepStmts", true);
+        storageRewriteBatchedStatements = resolveGet("storage.properties.rewriteBatchedStatements", true);
 
         // Settings
         defaultDisplay = resolveGet("settings.defaultDisplay", "ALL");
@@ -60,15 +96,128 @@ public class OMConfig extends ConfigurationBase {
         mentionCooldown = resolveGet("settings.mentionCooldown", 3);
         maxMentionsPerMessage = resolveGet("settings.maxMentionsPerMessage", 3);
         allowSelfMention = resolveGet("settings.allowSelfMention", true);
+        requireOnline = resolveGet("settings.requireOnline", false);
+        offlineMentionCapacity = resolveGet("settings.offlineMentionCapacity", 20);
+        offlineMentionExpiry = resolveGet("settings.offlineMentionExpiry", 168);
+        notificationQueueCapacity = resolveGet("settings.notificationQueueCapacity", 1024);
+        notificationTickBudget = resolveGet("settings.notificationTickBudget", 2000);
+        historySize = resolveGet("settings.historySize", 10);
+        historyExcerptLength = resolveGet("settings.historyExcerptLength", 64);
+
+        // Combat
+        combatTagDuration = resolveGet("combat.tagDuration", 15);
 
         // Formatting
         requireSymbol = resolveGet("formatting.requireSymbol", false);
         symbols = resolveGet("formatting.symbols", List.of("@", "!"));
         defaultFormat = resolveGet("formatting.defaultFormat", "&e@%player%&r");
+        formatRefreshInterval = resolveGet("formatting.refreshInterval", 60);
+        if (defaultFormat == null || defaultFormat.isEmpty())
+            logger().Error("Default format is not set in the config. Please set 'formatting.defaultFormat' in the config.yml.");
         // Example permission based formats
-        permissionBasedFormats = resolveGet("formatting.permissionBasedFormats", List.of(
-            "group:admin;format:&c@%player%&r",
-            "group:vip;format:&d@%player%&r"
+        resolve("formatting.permissionBasedFormats", List.of(
+            Map.of("group", "admin", "format", "&c@%player%&r"),
+            Map.of("group", "vip", "format", "&d@%player%&r")
         ));
+        permissionBasedFormats = parsePermissionFormats(get("formatting.permissionBasedFormats"));
+    }
+
+    /**
+     * Retrieves the logger of the configuration.
+     * Not stored in a field, because the base constructor loads the configuration before field initializers run.
+     *
+     * @return The logger of the configuration.
+     */
+    private static PluginLogger logger() {
+        return OpenMentions.Logger().WithModule(OMConfig.class);
+    }
+
+    /**
+     * Parses the permission based formats of the configuration.
+     * Entries are either maps with 'group' and 'format' keys, or legacy "group:x;format:y" strings.
+     * Invalid entries are logged and skipped.
+     *
+     * @param raw The raw configuration value.
+     * @return The parsed formats, in the configured order.
+     */
+    private List<MentionFormat> parsePermissionFormats(Object raw) {
+        if (!(raw instanceof List<?> rawList)) {
+            if (raw != null)
+                logger().Warn("Permission formats in the config are not in the expected format. Expected a list of maps.");
+            return List.of();
+        }
+
+        List<MentionFormat> formats = new ArrayList<>(rawList.size());
+        for (var entry : rawList) {
+            String group = null;
+            String format = null;
+            if (entry instanceof Map<?, ?> map) {
+                group = map.get("group") == null ? null : map.get("group").toString();
+                format = map.get("format") == null ? null : map.get("format").toString();
+            } else if (entry instanceof String text) {
+                for (var part : text.split(";")) {
+                    int separator = part.indexOf(':');
+                    if (separator < 0)
+                        continue;
+                    String key = part.substring(0, separator).trim();
+                    if (key.equalsIgnoreCase("group"))
+                        group = part.substring(separator + 1).trim();
+                    else if (key.equalsIgnoreCase("format"))
+                        format = part.substring(separator + 1).trim();
+                }
+            }
+
+            if (group == null || group.isEmpty() || format == null || format.isEmpty()) {
+                logger().Warn("Skipping invalid permission format entry: " + entry);
+                continue;
+            }
+            formats.add(MentionFormat.ofGroup(group, format));
+        }
+        return List.copyOf(formats);
+    }
+
+    /**
+     * Creates the data of a player who has not changed any of their settings.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data, holding the configured default values.
+     */
+    public PlayerDatabaseData createDefaultData(UUID playerId) {
+        return new PlayerDatabaseData(
+                playerId,
+                defaultSound,
+                EMentionDisplay.valueOf(defaultDisplay),
+                EMentionPreference.valueOf(defaultPreference)
+        );
+    }
+
+    /**
+     * Checks whether the data of a player holds nothing but the configured default values.
+     *
+     * @param data The player's data.
+     * @return True if every setting matches its default, false otherwise.
+     */
+    public boolean isDefaultData(PlayerDatabaseData data) {
+        return data.Display.name().equals(defaultDisplay)
+                && data.Preference.name().equals(defaultPreference)
+                && normalizeSoundName(data.SoundName).equals(normalizeSoundName(defaultSound));
+    }
+
+    /**
+     * Gets the time before which offline mentions are expired.
+     *
+     * @return The cutoff time in milliseconds since the epoch, or 0 if offline mentions never expire.
+     */
+    public long getOfflineMentionCutoff() {
+        if (offlineMentionExpiry <= 0)
+            return 0;
+        return System.currentTimeMillis() - TimeUnit.HOURS.toMillis(offlineMentionExpiry);
+    }
+
+    /**
+     * Normalizes a sound name, so that 'entity.player.levelup' and 'ENTITY_PLAYER_LEVELUP' compare equal.
+     */
+    private static String normalizeSoundName(String soundName) {
+        return soundName == null ? "" : soundName.replace('.', '_').toUpperCase(Locale.ROOT);
     }
 }
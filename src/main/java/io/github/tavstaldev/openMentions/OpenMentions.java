@@ -9,14 +9,30 @@ import io.github.tavstaldev.openMentions.commands.CommandMentions;
 import io.github.tavstaldev.openMentions.commands.CommandsMentionsCompleter;
 import io.github.tavstaldev.openMentions.events.ChatListener;
 import io.github.tavstaldev.openMentions.events.PlayerListener;
+import io.github.tavstaldev.openMentions.events.VanishListener;
+import io.github.tavstaldev.openMentions.managers.ChangeFeedManager;
 import io.github.tavstaldev.openMentions.managers.CombatLogManager;
 import io.github.tavstaldev.openMentions.managers.CombatManager;
+import io.github.tavstaldev.openMentions.managers.FileStorageManager;
+import io.github.tavstaldev.openMentions.managers.MentionDispatcher;
+import io.github.tavstaldev.openMentions.managers.MentionHistoryManager;
+import io.github.tavstaldev.openMentions.managers.MentionInboxManager;
 import io.github.tavstaldev.openMentions.managers.MySqlManager;
+import io.github.tavstaldev.openMentions.managers.NameDirectoryManager;
+import io.github.tavstaldev.openMentions.managers.NameMatcherManager;
+import io.github.tavstaldev.openMentions.managers.NotificationTemplateManager;
+import io.github.tavstaldev.openMentions.managers.PersistenceManager;
+import io.github.tavstaldev.openMentions.managers.PlayerCacheManager;
+import io.github.tavstaldev.openMentions.managers.PlayerDataLoader;
 import io.github.tavstaldev.openMentions.managers.SqlLiteManager;
+import io.github.tavstaldev.openMentions.managers.VanishManager;
 import io.github.tavstaldev.openMentions.models.ICombatManager;
 import io.github.tavstaldev.openMentions.models.IDatabase;
+import io.github.tavstaldev.openMentions.utils.MentionUtils;
+import io.github.tavstaldev.openMentions.utils.SoundUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
 
 /**
@@ -62,6 +78,9 @@ public final class OpenMentions extends PluginBase {
     /** EssentialsX. */
     public static Essentials EssentialsX;
 
+    /** Task periodically revalidating the cached mention formats. */
+    private BukkitTask _formatRefreshTask;
+
     /**
      * Constructor for the OpenMentions plugin.
      * Initializes the plugin with its name, version, author, download URL, and supported languages.
@@ -93,7 +112,7 @@ public final class OpenMentions extends PluginBase {
             getLogger().info("Successfully hooked into CombatLogX!");
         } else {
             CombatManager = new CombatManager();
-            _logger.Warn("CombatLogX plugin not found or not enabled. Combat management features will be disabled.");
+            _logger.Warn("CombatLogX plugin not found or not enabled. Using the built-in combat tracking.");
         }
         // Initialize EssentialsX
         Plugin essentialsXPlugin = Bukkit.getPluginManager().getPlugin("Essentials");
@@ -102,12 +121,17 @@ public final class OpenMentions extends PluginBase {
             getLogger().info("Successfully hooked into EssentialsX!");
         } else {
             EssentialsX = null;
-            _logger.Warn("EssentialsX plugin not found or not enabled. Combat management features will be disabled.");
+            _logger.Warn("EssentialsX plugin not found or not enabled. Vanished players will not be excluded from mentions.");
         }
 
         // Register Events
         new PlayerListener();
         new ChatListener();
+        if (EssentialsX != null) {
+            new VanishListener();
+            // Players already online when the plugin is (re)enabled did not trigger a join
+            VanishManager.refreshPlayers();
+        }
 
         // Generate config file
         saveDefaultConfig();
@@ -128,14 +152,36 @@ public final class OpenMentions extends PluginBase {
                 Database = new MySqlManager();
                 break;
             }
+            case "file": {
+                Database = new FileStorageManager();
+                break;
+            }
             case "sqlite":
             default: {
                 Database = new SqlLiteManager();
                 break;
             }
         }
-        Database.checkSchema();
         Database.load();
+        Database.checkSchema();
+        PersistenceManager.start();
+        ChangeFeedManager.start();
+        MentionInboxManager.start();
+        NameDirectoryManager.start();
+
+        // Players already online when the plugin is (re)enabled did not trigger a join
+        NameMatcherManager.addPlayers();
+        NameDirectoryManager.addPlayers();
+        PlayerDataLoader.loadOnlinePlayers();
+        MentionHistoryManager.addPlayers();
+        MentionUtils.refreshFormattedMentions();
+
+        // Schedule mention format revalidation
+        scheduleFormatRefresh();
+        // Start delivering queued notifications
+        MentionDispatcher.start();
+        // Sweep expired cooldowns every minute
+        Bukkit.getScheduler().runTaskTimerAsynchronously(this, PlayerCacheManager::sweepCooldowns, 1200L, 1200L);
 
         // Register Commands
         _logger.Debug("Registering commands...");
@@ -166,6 +212,14 @@ public final class OpenMentions extends PluginBase {
      */
     @Override
     public void onDisable() {
+        MentionDispatcher.stop();
+        if (Database != null) {
+            ChangeFeedManager.stop();
+            PersistenceManager.stop();
+            MentionInboxManager.stop();
+            NameDirectoryManager.stop();
+            Database.unload();
+        }
         _logger.Info(String.format("%s has been successfully unloaded.", getProjectName()));
     }
 
@@ -180,5 +234,32 @@ public final class OpenMentions extends PluginBase {
         _logger.Debug("Reloading configuration...");
         this._config.load();
         _logger.Debug("Configuration reloaded.");
+        NameMatcherManager.reloadSymbols();
+        NotificationTemplateManager.clear();
+        SoundUtils.clearCache();
+        PlayerCacheManager.refreshSounds();
+        _logger.Debug("Refreshing mention formats...");
+        MentionUtils.refreshFormattedMentions();
+        scheduleFormatRefresh();
+        _logger.Debug("Mention formats refreshed.");
+        // Pick up a changed flush interval
+        PersistenceManager.start();
+        ChangeFeedManager.start();
+        NameDirectoryManager.start();
+    }
+
+    /**
+     * (Re)schedules the periodic revalidation of the cached mention formats.
+     * Permission changes do not fire an event, so this is the fallback that picks them up.
+     */
+    private void scheduleFormatRefresh() {
+        if (_formatRefreshTask != null) {
+            _formatRefreshTask.cancel();
+            _formatRefreshTask = null;
+        }
+
+        long interval = Config().formatRefreshInterval * 20L;
+        if (interval > 0)
+            _formatRefreshTask = Bukkit.getScheduler().runTaskTimer(this, MentionUtils::refreshFormattedMentions, interval, interval);
     }
 }
\ No newline at end of file
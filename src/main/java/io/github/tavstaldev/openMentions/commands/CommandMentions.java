@@ -5,12 +5,16 @@ import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.minecorelib.models.command.SubCommandData;
 import io.github.tavstaldev.minecorelib.utils.ChatUtils;
 import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.managers.MentionDispatcher;
+import io.github.tavstaldev.openMentions.managers.MentionHistoryManager;
+import io.github.tavstaldev.openMentions.managers.PersistenceManager;
 import io.github.tavstaldev.openMentions.managers.PlayerCacheManager;
 import io.github.tavstaldev.openMentions.models.EMentionDisplay;
 import io.github.tavstaldev.openMentions.models.EMentionPreference;
 import io.github.tavstaldev.openMentions.utils.SoundUtils;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -22,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * CommandMentions class implements the CommandExecutor interface to handle the
@@ -100,6 +105,30 @@ public class CommandMentions implements CommandExecutor {
                     OpenMentions.Instance.sendLocalizedMsg(player, "Commands.Reload.Done");
                     return true;
                 }
+                case "stats": {
+                    if (!player.hasPermission("OpenMentions.commands.stats")) {
+                        OpenMentions.Instance.sendLocalizedMsg(player, "General.NoPermission");
+                        return true;
+                    }
+
+                    OpenMentions.Instance.sendLocalizedMsg(player, "Commands.Stats.Queue", Map.of(
+                            "depth", MentionDispatcher.getQueueDepth(),
+                            "capacity", OpenMentions.Config().notificationQueueCapacity,
+                            "last", TimeUnit.NANOSECONDS.toMicros(MentionDispatcher.getLastDrainNanos()),
+                            "max", TimeUnit.NANOSECONDS.toMicros(MentionDispatcher.getMaxDrainNanos()),
+                            "budget", OpenMentions.Config().notificationTickBudget
+                    ));
+                    OpenMentions.Instance.sendLocalizedMsg(player, "Commands.Stats.Counters", Map.of(
+                            "delivered", MentionDispatcher.getDeliveredCount(),
+                            "coalesced", MentionDispatcher.getCoalescedCount(),
+                            "dropped", MentionDispatcher.getDroppedCount()
+                    ));
+                    return true;
+                }
+                case "history": {
+                    history(player);
+                    return true;
+                }
                 case "sound": {
                     if (args.length < 2) {
                         OpenMentions.Instance.sendLocalizedMsg(player, "Commands.Sound.Usage");
@@ -114,9 +143,9 @@ public class CommandMentions implements CommandExecutor {
 
                     var playerId = player.getUniqueId();
                     String soundName = sound.get().name();
-                    OpenMentions.Database.updateSound(playerId, soundName);
-                    var cache = PlayerCacheManager.getPlayerData(playerId);
-                    cache.SoundName = soundName;
+                    var updated = PlayerCacheManager.updatePlayerData(playerId, data -> data.withSoundName(soundName));
+                    if (updated != null)
+                        PersistenceManager.markDirty(updated);
                     OpenMentions.Instance.sendLocalizedMsg(player, "Commands.Sound.Set", Map.of(
                             "value", soundName
                     ));
@@ -137,9 +166,9 @@ public class CommandMentions implements CommandExecutor {
                     }
 
                     var playerId = player.getUniqueId();
-                    OpenMentions.Database.updateDisplay(playerId, display);
-                    var cache = PlayerCacheManager.getPlayerData(playerId);
-                    cache.Display = display;
+                    var updated = PlayerCacheManager.updatePlayerData(playerId, data -> data.withDisplay(display));
+                    if (updated != null)
+                        PersistenceManager.markDirty(updated);
                     OpenMentions.Instance.sendLocalizedMsg(player, "Commands.Display.Set", Map.of(
                             "value", display.toString()
                     ));
@@ -160,9 +189,9 @@ public class CommandMentions implements CommandExecutor {
                     }
 
                     var playerId = player.getUniqueId();
-                    OpenMentions.Database.updatePreference(playerId, preference);
-                    var cache = PlayerCacheManager.getPlayerData(playerId);
-                    cache.Preference = preference;
+                    var updated = PlayerCacheManager.updatePlayerData(playerId, data -> data.withPreference(preference));
+                    if (updated != null)
+                        PersistenceManager.markDirty(updated);
                     OpenMentions.Instance.sendLocalizedMsg(player, "Commands.Preference.Set", Map.of(
                             "value", preference.toString()
                     ));
@@ -196,6 +225,16 @@ public class CommandMentions implements CommandExecutor {
                     "syntax", "",
                     "description", "Commands.Reload.Desc"
             )),
+            // STATS
+            new SubCommandData("stats", "openmentions.commands.stats", Map.of(
+                    "syntax", "",
+                    "description", "Commands.Stats.Desc"
+            )),
+            // HISTORY
+            new SubCommandData("history", "", Map.of(
+                    "syntax", "",
+                    "description", "Commands.History.Desc"
+            )),
             // SET SOUND
             new SubCommandData("sound", "", Map.of(
                     "syntax", "Commands.Sound.Syntax",
@@ -213,6 +252,44 @@ public class CommandMentions implements CommandExecutor {
             ))
     );
 
+    /**
+     * Displays the recent mentions of a player, newest first.
+     *
+     * @param player The player requesting their mention history.
+     */
+    private void history(Player player) {
+        var entries = MentionHistoryManager.getEntries(player.getUniqueId());
+        if (entries.isEmpty()) {
+            OpenMentions.Instance.sendLocalizedMsg(player, "Commands.History.Empty");
+            return;
+        }
+
+        OpenMentions.Instance.sendLocalizedMsg(player, "Commands.History.Title");
+        long now = System.currentTimeMillis();
+        for (var entry : entries) {
+            String mentionerName = Bukkit.getOfflinePlayer(entry.mentionerId()).getName();
+            OpenMentions.Instance.sendLocalizedMsg(player, "Commands.History.Line", Map.of(
+                    "player", mentionerName == null ? entry.mentionerId().toString() : mentionerName,
+                    "time", formatElapsed(now - entry.createdAt()),
+                    "message", entry.excerpt()
+            ));
+        }
+    }
+
+    /**
+     * Formats an elapsed time with its largest unit, like '5m' or '2h'.
+     */
+    private static String formatElapsed(long millis) {
+        long seconds = Math.max(0, TimeUnit.MILLISECONDS.toSeconds(millis));
+        if (seconds < 60)
+            return seconds + "s";
+        if (seconds < 3600)
+            return (seconds / 60) + "m";
+        if (seconds < 86400)
+            return (seconds / 3600) + "h";
+        return (seconds / 86400) + "d";
+    }
+
     /**
      * Displays the help menu for the "/mentions" command.
      *
@@ -2,6 +2,10 @@ package io.github.tavstaldev.openMentions.events;
 
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.managers.MentionHistoryManager;
+import io.github.tavstaldev.openMentions.managers.NameMatcherManager;
+import io.github.tavstaldev.openMentions.managers.VanishManager;
+import io.github.tavstaldev.openMentions.utils.MentionRewriter;
 import io.github.tavstaldev.openMentions.utils.MentionUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -10,6 +14,8 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 
+import java.util.UUID;
+
 public class ChatListener implements Listener {
     private final PluginLogger _logger = OpenMentions.Logger().WithModule(ChatListener.class);
 
@@ -23,52 +29,46 @@ public class ChatListener implements Listener {
     public void onChat(AsyncPlayerChatEvent event) {
         Player source = event.getPlayer();
         String rawMessage = event.getMessage();
+        var config = OpenMentions.Config();
 
-        boolean requirePrefix = OpenMentions.Config().requireSymbol;
         int mentionCount = 0;
-        final int maxMentionCount = OpenMentions.Config().maxMentionsPerMessage;
-
-        // Build regex pattern for mention prefixes
-        StringBuilder regexPattern = new StringBuilder();
-        boolean isFirst = true;
-        for (var prefix : OpenMentions.Config().symbols) {
-            if (!isFirst) {
-                regexPattern.append(String.format("|%s{player}", prefix));
-            } else {
-                isFirst = false;
-                regexPattern.append(String.format("%s{player}", prefix));
-            }
-        }
-        if (!requirePrefix) {
-            regexPattern.append("|{player}");
-        }
+        final int maxMentionCount = config.maxMentionsPerMessage;
+        boolean allowSelfMention = config.allowSelfMention;
 
-        boolean allowSelfMention = OpenMentions.Config().allowSelfMention;
+        // Find every mention in the message with a single pass
+        MentionRewriter rewriter = MentionRewriter.get();
+        rewriter.scan(rawMessage, NameMatcherManager.getAutomaton(), NameMatcherManager.getSymbols(), config.requireSymbol, !config.requireOnline);
 
-        for (var onlinePlayer : Bukkit.getOnlinePlayers()) {
+        // Each mentioned player is handled once, however many times they were mentioned
+        for (int i = 0; i < rewriter.getTargetCount(); i++) {
+            UUID targetId = rewriter.getTargetId(i);
             // Ignore the sender player to prevent self-mentions
-            if (!allowSelfMention && onlinePlayer.getUniqueId() == source.getUniqueId())
+            if (!allowSelfMention && targetId.equals(source.getUniqueId()))
                 continue;
 
-            String onlinePlayerName = onlinePlayer.getName();
-            if (!rawMessage.contains(onlinePlayerName))
-                continue;
-
-            if(OpenMentions.EssentialsX != null && OpenMentions.EssentialsX.getUser(onlinePlayer).isVanished()){
-                continue;
-            }
+            Player onlinePlayer = Bukkit.getPlayer(targetId);
+            if (onlinePlayer != null) {
+                if (VanishManager.isVanished(targetId))
+                    continue;
 
+                rewriter.setReplacement(i, MentionUtils.getFormattedMention(onlinePlayer));
+                // Keep the mentions the player was notified about, including those merged into another notification
+                if (MentionUtils.mentionPlayer(onlinePlayer, source).isNotified())
+                    MentionHistoryManager.record(targetId, source.getUniqueId(), rawMessage);
+            } else {
+                // The player is offline, keep the mention for when they join
+                if (config.requireOnline)
+                    continue;
 
-            String mentionPrefix = MentionUtils.getFormattedMention(onlinePlayer);
-            String localRegexPattern = regexPattern.toString().replace("{player}", onlinePlayerName);
-            rawMessage = rawMessage.replaceAll(localRegexPattern, mentionPrefix);
-            MentionUtils.mentionPlayer(onlinePlayer, source);
+                rewriter.setReplacement(i, MentionUtils.formatMention(rewriter.getTargetName(i)));
+                MentionUtils.mentionOfflinePlayer(targetId, source);
+            }
             mentionCount++;
-            if (mentionCount >= maxMentionCount) {
+            if (maxMentionCount > 0 && mentionCount >= maxMentionCount) {
                 _logger.Debug(String.format("Player %s has exceeded the maximum mention count (%d) in a single message.", source.getName(), maxMentionCount));
                 break;
             }
         }
-        event.setMessage(rawMessage.replace("&", "§"));
+        event.setMessage(rewriter.rewrite(rawMessage));
     }
 }
@@ -2,20 +2,30 @@ package io.github.tavstaldev.openMentions.events;
 
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.managers.MentionHistoryManager;
+import io.github.tavstaldev.openMentions.managers.MentionInboxManager;
+import io.github.tavstaldev.openMentions.managers.NameDirectoryManager;
+import io.github.tavstaldev.openMentions.managers.NameMatcherManager;
+import io.github.tavstaldev.openMentions.managers.PersistenceManager;
+import io.github.tavstaldev.openMentions.managers.PlayerDataLoader;
 import io.github.tavstaldev.openMentions.managers.PlayerCacheManager;
-import io.github.tavstaldev.openMentions.models.EMentionDisplay;
-import io.github.tavstaldev.openMentions.models.EMentionPreference;
+import io.github.tavstaldev.openMentions.managers.VanishManager;
 import io.github.tavstaldev.openMentions.models.PlayerDatabaseData;
+import io.github.tavstaldev.openMentions.utils.MentionUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
  * Event listener class for handling player-related events in the OpenMentions plugin.
- * Includes player join, quit, and chat events.
+ * Includes player pre-login, login, join, quit, and world change events.
  */
 public class PlayerListener implements Listener {
     /** Logger instance for logging messages related to EventListener. */
@@ -30,37 +40,83 @@ public class PlayerListener implements Listener {
         _logger.Debug("Event listener registered.");
     }
 
+    /**
+     * Handles the AsyncPlayerPreLoginEvent.
+     * Loads or creates the player's data off the main thread and adds it to the PlayerCacheManager,
+     * so the join itself does not wait on the database.
+     *
+     * @param event The AsyncPlayerPreLoginEvent triggered before a player is allowed to join.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+            return;
+
+        var playerId = event.getUniqueId();
+        PlayerCacheManager.addPlayerData(playerId, PlayerDataLoader.load(playerId));
+    }
+
+    /**
+     * Handles the PlayerLoginEvent.
+     * Drops the data prefetched during the pre-login if the login has been denied.
+     *
+     * @param event The PlayerLoginEvent triggered when a player attempts to log in.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED)
+            PlayerCacheManager.removePlayerData(event.getPlayer().getUniqueId());
+    }
+
     /**
      * Handles the PlayerJoinEvent.
-     * Loads or creates player data and adds it to the PlayerCacheManager.
+     * Registers the player's name for mention detection, records whether they are vanished,
+     * creates their mention history and delivers the mentions they received while offline.
+     * The player's data is normally prefetched during the pre-login, if it is missing it is loaded
+     * asynchronously and the defaults are used in the meantime.
      *
      * @param event The PlayerJoinEvent triggered when a player joins the server.
      */
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        var config = OpenMentions.Config();
         Player player = event.getPlayer();
         var playerId = player.getUniqueId();
-        PlayerDatabaseData databaseData = OpenMentions.Database.getData(playerId);
-        if (databaseData == null) {
-            var defaultSoundKey = config.defaultSound;
-            var defaultDisplay = EMentionDisplay.valueOf(config.defaultDisplay);
-            var defaultPreference = EMentionPreference.valueOf(config.defaultPreference);
-            databaseData = new PlayerDatabaseData(
-                    playerId,
-                    defaultSoundKey,
-                    defaultDisplay,
-                    defaultPreference
-            );
-            OpenMentions.Database.addData(playerId, defaultSoundKey, defaultDisplay, defaultPreference);
+        if (PlayerCacheManager.getPlayerData(playerId) == null) {
+            _logger.Debug("Player data of " + player.getName() + " was not prefetched, loading it now...");
+            PlayerCacheManager.addPlayerData(playerId, OpenMentions.Config().createDefaultData(playerId));
+            Bukkit.getScheduler().runTaskAsynchronously(OpenMentions.Instance, () -> {
+                PlayerDatabaseData databaseData = PlayerDataLoader.load(playerId);
+                Bukkit.getScheduler().runTask(OpenMentions.Instance, () -> {
+                    // The player might have left while the data was loading, or changed a setting in the meantime
+                    if (player.isOnline())
+                        PlayerCacheManager.updatePlayerData(playerId, current -> PersistenceManager.isPending(playerId) ? current : databaseData);
+                });
+            });
         }
 
-        PlayerCacheManager.addPlayerData(playerId, databaseData);
+        NameMatcherManager.addPlayer(playerId, player.getName());
+        NameDirectoryManager.addPlayer(playerId, player.getName());
+        MentionHistoryManager.addPlayer(playerId);
+        VanishManager.refreshPlayer(player);
+        MentionUtils.refreshFormattedMention(player);
+        MentionInboxManager.deliver(player);
+    }
+
+    /**
+     * Handles the PlayerChangedWorldEvent.
+     * Re-resolves the player's mention format, since permissions can be world specific.
+     *
+     * @param event The PlayerChangedWorldEvent triggered when a player changes worlds.
+     */
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        MentionUtils.refreshFormattedMention(event.getPlayer());
     }
 
     /**
      * Handles the PlayerQuitEvent.
-     * Removes the player's data from the PlayerCacheManager.
+     * Removes the player's data from the PlayerCacheManager, the name matcher and the mention history,
+     * and writes their pending changes.
      *
      * @param event The PlayerQuitEvent triggered when a player leaves the server.
      */
@@ -68,5 +124,9 @@ public class PlayerListener implements Listener {
     public void onPlayerLeft(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         PlayerCacheManager.removePlayerData(player.getUniqueId());
+        NameMatcherManager.removePlayer(player.getUniqueId());
+        VanishManager.removePlayer(player.getUniqueId());
+        MentionHistoryManager.removePlayer(player.getUniqueId());
+        PersistenceManager.flushPlayer(player.getUniqueId());
     }
 }
\ No newline at end of file
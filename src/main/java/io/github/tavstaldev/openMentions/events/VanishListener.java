@@ -0,0 +1,42 @@
+package io.github.tavstaldev.openMentions.events;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.managers.VanishManager;
+import net.ess3.api.events.VanishStatusChangeEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Event listener class for keeping the VanishManager in sync with EssentialsX.
+ * Only registered when EssentialsX is installed, since it references its event classes.
+ */
+public class VanishListener implements Listener {
+    /** Logger instance for logging messages related to VanishListener. */
+    private final PluginLogger _logger = OpenMentions.Logger().WithModule(VanishListener.class);
+
+    /**
+     * Initializes and registers the event listener with the Bukkit plugin manager.
+     */
+    public VanishListener() {
+        _logger.Debug("Registering vanish event listener...");
+        Bukkit.getPluginManager().registerEvents(this, OpenMentions.Instance);
+        _logger.Debug("Event listener registered.");
+    }
+
+    /**
+     * Handles the VanishStatusChangeEvent.
+     * Records the new vanish state of the player once no other plugin cancels the change.
+     *
+     * @param event The VanishStatusChangeEvent triggered when a player vanishes or reappears.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onVanishStatusChange(VanishStatusChangeEvent event) {
+        var player = event.getAffected().getBase();
+        if (player == null)
+            return;
+        VanishManager.setVanished(player.getUniqueId(), event.getValue());
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the PlayerCacheManager in sync with changes made by other servers sharing the database.
+ * Polls the database's change feed on a timer and reloads only the changed players who are online here.
+ * Players with unsaved local changes are skipped, their own write wins.
+ */
+public class ChangeFeedManager {
+    /** Logger instance for logging messages related to ChangeFeedManager. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(ChangeFeedManager.class);
+
+    private static BukkitTask _task;
+
+    /**
+     * Starts polling the change feed, using the configured interval.
+     */
+    public static void start() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+
+        long interval = OpenMentions.Config().storageSyncInterval * 20L;
+        if (interval > 0)
+            _task = Bukkit.getScheduler().runTaskTimerAsynchronously(OpenMentions.Instance, ChangeFeedManager::poll, interval, interval);
+    }
+
+    /**
+     * Stops polling the change feed.
+     */
+    public static void stop() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+    }
+
+    /**
+     * Reads the change feed and reloads the changed players who are online. Blocks on the database.
+     */
+    private static void poll() {
+        var changed = OpenMentions.Database.getChangedPlayers();
+        if (changed.isEmpty())
+            return;
+
+        List<UUID> playerIds = new ArrayList<>(changed.size());
+        for (var playerId : changed) {
+            if (PlayerCacheManager.getPlayerData(playerId) != null && !PersistenceManager.isPending(playerId))
+                playerIds.add(playerId);
+        }
+        if (playerIds.isEmpty())
+            return;
+
+        var found = OpenMentions.Database.getDatas(playerIds);
+        if (found == null)
+            return;
+
+        for (var playerId : playerIds) {
+            // A missing row means the player is back to the defaults
+            var data = found.get(playerId);
+            var fresh = data != null ? data : OpenMentions.Config().createDefaultData(playerId);
+            // Only replace players still online, and never over a change made here in the meantime
+            PlayerCacheManager.updatePlayerData(playerId, current -> PersistenceManager.isPending(playerId) ? current : fresh);
+        }
+        _logger.Debug(String.format("Refreshed %d players changed by other servers.", playerIds.size()));
+    }
+}
@@ -1,26 +1,61 @@
 package io.github.tavstaldev.openMentions.managers;
 
 import com.github.sirblobman.combatlogx.api.ICombatLogX;
+import com.github.sirblobman.combatlogx.api.event.PlayerReTagEvent;
+import com.github.sirblobman.combatlogx.api.event.PlayerTagEvent;
+import com.github.sirblobman.combatlogx.api.event.PlayerUntagEvent;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
 import io.github.tavstaldev.openMentions.OpenMentions;
 import io.github.tavstaldev.openMentions.models.ICombatManager;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Manages interactions with the CombatLogX plugin to determine if a player is in combat.
  * Implements the ICombatManager interface.
+ * The combat state is mirrored from CombatLogX's tag and untag events into a concurrent set,
+ * so checking a player from the chat threads does not call into CombatLogX.
  */
-public class CombatLogManager implements ICombatManager {
+public class CombatLogManager implements ICombatManager, Listener {
+    // Interval of the reconciliation sweep, in ticks.
+    private static final long SWEEP_INTERVAL_TICKS = 100L;
+
     // Logger instance for logging messages related to this class.
     private final PluginLogger _logger = OpenMentions.Logger().WithModule(CombatLogManager.class);
 
     // Reference to the CombatLogX API.
     private ICombatLogX combatLogXAPI;
 
-    // Tracks whether the CombatLogX plugin has been initialized.
-    private boolean isInitialized = false;
+    // The unique identifiers of the players currently in combat, excluding those who can bypass it.
+    private final Set<UUID> _inCombat = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Hooks into the CombatLogX plugin, registers the tag event listeners and schedules the reconciliation sweep.
+     */
+    public CombatLogManager() {
+        // Attempt to retrieve the CombatLogX plugin from the Bukkit plugin manager.
+        Plugin plugin = Bukkit.getPluginManager().getPlugin("CombatLogX");
+        if (!(plugin instanceof ICombatLogX)) {
+            // Fallback if CombatLogX is not found or incompatible, nobody is ever tagged.
+            _logger.Warn("CombatLogX is not compatible, combat checks will be disabled.");
+            return;
+        }
+        combatLogXAPI = (ICombatLogX) plugin;
+
+        Bukkit.getPluginManager().registerEvents(this, OpenMentions.Instance);
+        // Events can be missed, e.g. players tagged before the plugin was enabled, so resync periodically.
+        Bukkit.getScheduler().runTaskTimer(OpenMentions.Instance, this::reconcile, 1L, SWEEP_INTERVAL_TICKS);
+    }
 
     /**
      * Checks if a given player is currently in combat.
@@ -30,37 +65,80 @@ public class CombatLogManager implements ICombatManager {
      */
     @Override
     public boolean isPlayerInCombat(Player player) {
-        try {
-            // If the CombatLogX API is not yet initialized, attempt to initialize it.
-            if (combatLogXAPI == null) {
-                if (!isInitialized) {
-                    isInitialized = true;
+        return _inCombat.contains(player.getUniqueId());
+    }
 
-                    // Attempt to retrieve the CombatLogX plugin from the Bukkit plugin manager.
-                    Plugin plugin = Bukkit.getPluginManager().getPlugin("CombatLogX");
-                    if (plugin instanceof ICombatLogX) {
-                        combatLogXAPI = (ICombatLogX) plugin;
-                    } else {
-                        // Fallback if CombatLogX is not found or incompatible.
-                        return false;
-                    }
-                } else {
-                    // If initialization has already been attempted, return false.
-                    return false;
-                }
-            }
+    /**
+     * Handles the PlayerTagEvent, marking the player as in combat unless they can bypass it.
+     *
+     * @param event The PlayerTagEvent triggered when CombatLogX tags a player.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTag(PlayerTagEvent event) {
+        tag(event.getPlayer());
+    }
 
-            // Use the CombatLogX API to check if the player is in combat.
+    /**
+     * Handles the PlayerReTagEvent, in case the initial tag has been missed.
+     *
+     * @param event The PlayerReTagEvent triggered when CombatLogX extends a player's tag.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerReTag(PlayerReTagEvent event) {
+        tag(event.getPlayer());
+    }
+
+    /**
+     * Handles the PlayerUntagEvent, marking the player as out of combat.
+     *
+     * @param event The PlayerUntagEvent triggered when CombatLogX untags a player.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerUntag(PlayerUntagEvent event) {
+        _inCombat.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Handles the PlayerQuitEvent, so players leaving while tagged are not kept in the set.
+     *
+     * @param event The PlayerQuitEvent triggered when a player leaves the server.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        _inCombat.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Marks a player as in combat, unless they can bypass combat checks.
+     *
+     * @param player The tagged player.
+     */
+    private void tag(Player player) {
+        try {
+            if (combatLogXAPI.getCombatManager().canBypass(player))
+                return;
+            _inCombat.add(player.getUniqueId());
+        } catch (Exception ex) {
+            _logger.Error("Error checking combat status for player " + player.getName() + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the tracked combat state with the one reported by CombatLogX. Runs on the main thread.
+     */
+    private void reconcile() {
+        try {
             var combatManager = combatLogXAPI.getCombatManager();
-            if (combatManager.canBypass(player)) {
-                // If the player can bypass combat checks, return false.
-                return false;
+            Set<UUID> inCombat = new HashSet<>();
+            for (var player : combatManager.getPlayersInCombat()) {
+                // Bypass permissions can change at any time, so they are rechecked here as well.
+                if (!combatManager.canBypass(player))
+                    inCombat.add(player.getUniqueId());
             }
-            return combatManager.isInCombat(player);
+            _inCombat.retainAll(inCombat);
+            _inCombat.addAll(inCombat);
         } catch (Exception ex) {
-            // Log any errors that occur during the combat check.
-            _logger.Error("Error checking combat status for player " + player.getName() + ": " + ex.getMessage());
-            return false;
+            _logger.Error(String.format("Unknown error happened while reconciling the combat states...\n%s", ex.getMessage()));
         }
     }
-}
\ No newline at end of file
+}
@@ -1,24 +1,185 @@
 package io.github.tavstaldev.openMentions.managers;
 
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
 import io.github.tavstaldev.openMentions.models.ICombatManager;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
- * A basic implementation of the ICombatManager interface.
- * This class provides a placeholder implementation for checking
- * if a player is in combat.
+ * Built-in implementation of the ICombatManager interface, used when CombatLogX is not installed.
+ * Players fighting each other are tagged for the configured duration after their last hit.
+ * Each tracked player is given a slot in a primitive array holding the time of their last hit,
+ * so checking a player from the chat threads is a map lookup and an array read, with no allocation.
+ * Slots are handed out and released on the main thread only, readers check that the slot still
+ * belongs to the player after reading its time.
  */
-public class CombatManager implements ICombatManager {
+public class CombatManager implements ICombatManager, Listener {
+    /** Number of slots allocated up front, the array grows as needed. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Logger instance for logging messages related to CombatManager. */
+    private final PluginLogger _logger = OpenMentions.Logger().WithModule(CombatManager.class);
+
+    /** Slot of each tracked player, keyed by the player's unique identifier (UUID). */
+    private final Map<UUID, Integer> _slots = new ConcurrentHashMap<>();
+    /** Slots released by players who left, reused before growing the array. */
+    private final Deque<Integer> _freeSlots = new ArrayDeque<>();
+    /** The next never used slot. */
+    private int _nextSlot = 0;
+    /** Time of the last hit of each slot, in nanoseconds, or 0 if the slot has not been in combat. */
+    private volatile AtomicLongArray _lastCombat = new AtomicLongArray(INITIAL_CAPACITY);
+
     /**
-     * Checks if a given player is currently in combat.
+     * Initializes the combat tracker and registers its event listeners.
+     */
+    public CombatManager() {
+        Bukkit.getPluginManager().registerEvents(this, OpenMentions.Instance);
+    }
+
+    /**
+     * Checks if a given player is currently in combat. Safe to call from any thread.
      *
      * @param player The player to check.
-     * @return Always returns false as this is a placeholder implementation.
+     * @return True if the player has been in combat within the configured tag duration, false otherwise.
      */
     @Override
     public boolean isPlayerInCombat(Player player) {
-        // Placeholder implementation
-        // I might implement this later
-        return false;
+        var playerId = player.getUniqueId();
+        Integer slot = _slots.get(playerId);
+        if (slot == null)
+            return false;
+
+        var lastCombat = _lastCombat;
+        if (slot >= lastCombat.length())
+            return false;
+        long time = lastCombat.get(slot);
+        if (time == 0)
+            return false;
+        // The slot might have been released and handed to another player since it was looked up
+        if (!slot.equals(_slots.get(playerId)))
+            return false;
+        return System.nanoTime() - time < TimeUnit.SECONDS.toNanos(OpenMentions.Config().combatTagDuration);
+    }
+
+    /**
+     * Handles the EntityDamageByEntityEvent, tagging both players when one player damages another,
+     * directly or with a projectile.
+     *
+     * @param event The EntityDamageByEntityEvent triggered when an entity damages another entity.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
+        if (OpenMentions.Config().combatTagDuration <= 0)
+            return;
+        if (!(event.getEntity() instanceof Player victim))
+            return;
+        Player attacker = getAttacker(event.getDamager());
+        if (attacker == null || attacker.getUniqueId().equals(victim.getUniqueId()))
+            return;
+
+        long now = System.nanoTime();
+        tag(victim, now);
+        tag(attacker, now);
+    }
+
+    /**
+     * Handles the PlayerDeathEvent, ending the combat of the player who died.
+     *
+     * @param event The PlayerDeathEvent triggered when a player dies.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        Integer slot = _slots.get(event.getEntity().getUniqueId());
+        if (slot != null)
+            _lastCombat.set(slot, 0);
+    }
+
+    /**
+     * Handles the PlayerQuitEvent, releasing the player's slot.
+     * The time is cleared before the slot is released, so its next owner never starts out in combat.
+     *
+     * @param event The PlayerQuitEvent triggered when a player leaves the server.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        var playerId = event.getPlayer().getUniqueId();
+        Integer slot = _slots.get(playerId);
+        if (slot == null)
+            return;
+        _lastCombat.set(slot, 0);
+        _slots.remove(playerId);
+        _freeSlots.push(slot);
+    }
+
+    /**
+     * Resolves the player responsible for a hit.
+     *
+     * @param damager The entity that dealt the damage.
+     * @return The attacking player, or null if the damage was not dealt by a player.
+     */
+    private Player getAttacker(Entity damager) {
+        if (damager instanceof Player player)
+            return player;
+        if (damager instanceof Projectile projectile && projectile.getShooter() instanceof Player shooter)
+            return shooter;
+        return null;
+    }
+
+    /**
+     * Records a hit for a player, assigning them a slot if they do not have one yet. Main thread only.
+     *
+     * @param player The player in combat.
+     * @param now The time of the hit, in nanoseconds.
+     */
+    private void tag(Player player, long now) {
+        var playerId = player.getUniqueId();
+        Integer slot = _slots.get(playerId);
+        if (slot == null) {
+            slot = allocateSlot();
+            _slots.put(playerId, slot);
+            _logger.Debug(String.format("Tracking the combat state of %s in slot %d.", player.getName(), slot));
+        }
+        // 0 is reserved for "never in combat"
+        _lastCombat.set(slot, now == 0 ? 1 : now);
+    }
+
+    /**
+     * Hands out a free slot, growing the array if every slot is taken. Main thread only.
+     *
+     * @return The slot.
+     */
+    private int allocateSlot() {
+        Integer free = _freeSlots.poll();
+        if (free != null)
+            return free;
+
+        int slot = _nextSlot++;
+        var lastCombat = _lastCombat;
+        if (slot >= lastCombat.length()) {
+            var grown = new AtomicLongArray(lastCombat.length() * 2);
+            for (int i = 0; i < lastCombat.length(); i++) {
+                grown.set(i, lastCombat.get(i));
+            }
+            // Readers keep using the old array until they see the new one, both hold the same values
+            _lastCombat = grown;
+        }
+        return slot;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,801 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OMConfig;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.EMentionDisplay;
+import io.github.tavstaldev.openMentions.models.EMentionPreference;
+import io.github.tavstaldev.openMentions.models.IDatabase;
+import io.github.tavstaldev.openMentions.models.OfflineMention;
+import io.github.tavstaldev.openMentions.models.PlayerDatabaseData;
+import io.github.tavstaldev.openMentions.models.RecordLog;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stores player data in a memory-mapped, append-only record log.
+ * Every write appends a full record of the player, the latest record of a player wins and a delete
+ * record hides the earlier ones. The log is replayed into an in-memory index on load, so every read
+ * is served from memory. Once most of the log is made of outdated records it is compacted in the
+ * background by rewriting the live records into a new file.
+ * Offline mentions are kept in the same log: each mention is appended as its own record, and a take
+ * record clears every earlier mention of the player. Player names are kept the same way as the data,
+ * the latest name record of a player wins.
+ * Writes are not forced to disk one by one, the operating system writes the mapped pages back,
+ * and the log is forced on compaction and unload.
+ */
+public class FileStorageManager implements IDatabase {
+    private OMConfig _config;
+
+    /** Logger instance for logging messages related to FileStorageManager. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(FileStorageManager.class);
+
+    /** "OMLG", marks the start of a log file. */
+    private static final int MAGIC = 0x4F4D4C47;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = RecordLog.HEADER_SIZE;
+    private static final int RECORD_HEADER_SIZE = RecordLog.RECORD_HEADER_SIZE;
+    /** Operation, UUID, display, preference and sound length. */
+    private static final int PUT_FIXED_SIZE = 1 + 16 + 1 + 1 + 2;
+    private static final int DELETE_SIZE = 1 + 16;
+    /** Operation, UUID, creation time and mentioner name length. */
+    private static final int MENTION_FIXED_SIZE = 1 + 16 + 8 + 1;
+    /** Operation, UUID and name length. */
+    private static final int NAME_FIXED_SIZE = 1 + 16 + 1;
+    private static final int MAX_PAYLOAD_SIZE = PUT_FIXED_SIZE + 1024;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_MENTION = 3;
+    private static final byte OP_TAKE_MENTIONS = 4;
+    private static final byte OP_NAME = 5;
+    /** Logs smaller than this are never compacted. */
+    private static final long COMPACT_MIN_SIZE = 4L * 1024 * 1024;
+
+    /** The latest data of every stored player, keyed by the player's unique identifier (UUID). */
+    private final Map<UUID, PlayerDatabaseData> _index = new ConcurrentHashMap<>();
+    /** The offline mentions of each player, oldest first. Guarded by the lock. */
+    private final Map<UUID, ArrayDeque<OfflineMention>> _inbox = new HashMap<>();
+    /** The name of every player who has ever joined. Guarded by the lock. */
+    private final Map<UUID, String> _names = new HashMap<>();
+
+    /** Guards the log and everything written to it. */
+    private final Object _lock = new Object();
+    private final AtomicBoolean _compacting = new AtomicBoolean(false);
+    private Path _path;
+    /** The open log, or null if it could not be opened. */
+    private RecordLog _log;
+    /** Bytes taken by the records still in use, the rest of the log is garbage. */
+    private long _liveBytes;
+    /** Reused to encode the payload of records before they are appended to the log. */
+    private final ByteBuffer _encodeBuffer = ByteBuffer.allocate(MAX_PAYLOAD_SIZE);
+
+    /**
+     * Opens the log file, creating it if needed, and replays it into the in-memory index.
+     */
+    @Override
+    public void load() {
+        _config = OpenMentions.Config();
+        _path = Path.of("plugins", "OpenMentions", _config.storageFilename + ".omlog");
+        synchronized (_lock) {
+            try {
+                Files.createDirectories(_path.getParent());
+                open();
+                replay();
+                _logger.Debug(String.format("Loaded %d players from the storage log (%d of %d bytes in use).", _index.size(), _liveBytes, _log.getTail()));
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while opening the storage log...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Forces the log to disk and closes it.
+     */
+    @Override
+    public void unload() {
+        synchronized (_lock) {
+            close();
+        }
+    }
+
+    /**
+     * The log has no schema to update, only checks that it has been opened.
+     */
+    @Override
+    public void checkSchema() {
+        if (_log == null)
+            _logger.Error("The storage log is not open, player data will not be saved.");
+    }
+
+    /**
+     * Opens the log file, writing the header if the file is new. The caller must hold the lock.
+     *
+     * @throws IOException If the file could not be opened or is not a supported log file.
+     */
+    private void open() throws IOException {
+        _log = RecordLog.open(_path, MAGIC, FORMAT_VERSION, DELETE_SIZE, MAX_PAYLOAD_SIZE);
+        int version = _log.getVersion();
+        if (version == 1) {
+            // Version 2 only added the mention records, mark the log so older builds refuse it
+            _log.setVersion(FORMAT_VERSION);
+        } else if (version != FORMAT_VERSION) {
+            close();
+            throw new IOException(String.format("Unsupported storage log version %d.", version));
+        }
+    }
+
+    /**
+     * Forces the log to disk, releases its mapping and closes the file. The caller must hold the lock.
+     */
+    private void close() {
+        if (_log == null)
+            return;
+
+        try {
+            _log.close();
+        } catch (IOException ex) {
+            _logger.Error(String.format("Unknown error happened while closing the storage log...\n%s", ex.getMessage()));
+        }
+        _log = null;
+    }
+
+    /**
+     * Reads every record of the log into the index and finds the end of the log.
+     * A torn or corrupt record ends the log, the log clears everything after it. The caller must hold the lock.
+     */
+    private void replay() {
+        Map<UUID, PlayerDatabaseData> index = new HashMap<>();
+        Map<UUID, Integer> recordSizes = new HashMap<>();
+        Map<UUID, ArrayDeque<OfflineMention>> inbox = new HashMap<>();
+        Map<UUID, String> names = new HashMap<>();
+        _liveBytes = 0;
+
+        boolean damaged = _log.replay((payload, length) -> {
+            ByteBuffer record = ByteBuffer.wrap(payload, 0, length);
+            byte op = record.get();
+            UUID playerId = new UUID(record.getLong(), record.getLong());
+            int size = RECORD_HEADER_SIZE + length;
+            if (op == OP_MENTION || op == OP_TAKE_MENTIONS) {
+                replayMention(op, playerId, record, payload, inbox);
+                return;
+            }
+            if (op == OP_NAME) {
+                int nameLength = record.get() & 0xFF;
+                if (nameLength <= record.remaining())
+                    names.put(playerId, new String(payload, record.position(), nameLength, StandardCharsets.UTF_8));
+                else
+                    _logger.Warn(String.format("Skipped an unreadable name record of %s.", playerId));
+                return;
+            }
+
+            Integer previous = recordSizes.remove(playerId);
+            if (previous != null)
+                _liveBytes -= previous;
+
+            if (op == OP_PUT) {
+                try {
+                    EMentionDisplay display = EMentionDisplay.fromCode(record.get());
+                    EMentionPreference preference = EMentionPreference.fromCode(record.get());
+                    int soundLength = record.getShort() & 0xFFFF;
+                    if (soundLength > record.remaining())
+                        throw new IllegalArgumentException("Sound name exceeds the record.");
+                    String sound = new String(payload, record.position(), soundLength, StandardCharsets.UTF_8);
+                    index.put(playerId, new PlayerDatabaseData(playerId, sound, display, preference));
+                    recordSizes.put(playerId, size);
+                    _liveBytes += size;
+                } catch (IllegalArgumentException ex) {
+                    _logger.Warn(String.format("Skipped an unreadable storage log record of %s.", playerId));
+                    index.remove(playerId);
+                }
+            } else {
+                index.remove(playerId);
+            }
+        });
+
+        // Swap the contents in without a moment where a stored player looks missing
+        _index.keySet().retainAll(index.keySet());
+        _index.putAll(index);
+        _names.clear();
+        _names.putAll(names);
+        for (var name : names.values()) {
+            _liveBytes += nameRecordSize(name);
+        }
+        _inbox.clear();
+        long cutoff = _config.getOfflineMentionCutoff();
+        for (var entry : inbox.entrySet()) {
+            var mentions = entry.getValue();
+            trimInbox(mentions, cutoff);
+            if (mentions.isEmpty())
+                continue;
+            _inbox.put(entry.getKey(), mentions);
+            for (var mention : mentions) {
+                _liveBytes += mentionRecordSize(mention);
+            }
+        }
+
+        if (damaged)
+            _logger.Warn(String.format("The storage log is damaged at byte %d, the records after it have been dropped.", _log.getTail()));
+    }
+
+    /**
+     * Applies a mention record read from the log.
+     *
+     * @param op The operation of the record.
+     * @param playerId The unique identifier of the mentioned player.
+     * @param record The record, positioned after the UUID.
+     * @param payload The bytes of the record.
+     * @param inbox The mentions read so far.
+     */
+    private void replayMention(byte op, UUID playerId, ByteBuffer record, byte[] payload, Map<UUID, ArrayDeque<OfflineMention>> inbox) {
+        if (op == OP_TAKE_MENTIONS) {
+            inbox.remove(playerId);
+            return;
+        }
+
+        if (record.remaining() < Long.BYTES + 1) {
+            _logger.Warn(String.format("Skipped an unreadable offline mention record of %s.", playerId));
+            return;
+        }
+        long createdAt = record.getLong();
+        int nameLength = record.get() & 0xFF;
+        if (nameLength > record.remaining()) {
+            _logger.Warn(String.format("Skipped an unreadable offline mention record of %s.", playerId));
+            return;
+        }
+        String name = new String(payload, record.position(), nameLength, StandardCharsets.UTF_8);
+        inbox.computeIfAbsent(playerId, id -> new ArrayDeque<>()).addLast(new OfflineMention(playerId, name, createdAt));
+    }
+
+    /**
+     * Appends the record of a player's data and updates the index. The caller must hold the lock.
+     *
+     * @param data The player's data.
+     */
+    private void appendPut(PlayerDatabaseData data) throws IOException {
+        int size = writePut(data);
+        var previous = _index.put(data.PlayerId, data);
+        if (previous != null)
+            _liveBytes -= recordSize(previous);
+        _liveBytes += size;
+    }
+
+    /**
+     * Appends the record of a player's data without touching the index. The caller must hold the lock.
+     *
+     * @param data The player's data.
+     * @return The size of the record, in bytes.
+     */
+    private int writePut(PlayerDatabaseData data) throws IOException {
+        byte[] sound = data.SoundName.getBytes(StandardCharsets.UTF_8);
+        if (sound.length > MAX_PAYLOAD_SIZE - PUT_FIXED_SIZE)
+            throw new IOException("Sound name is too long: " + data.SoundName);
+
+        ByteBuffer record = beginRecord(OP_PUT, data.PlayerId);
+        record.put((byte) data.Display.getCode());
+        record.put((byte) data.Preference.getCode());
+        record.putShort((short) sound.length);
+        record.put(sound);
+        return endRecord();
+    }
+
+    /**
+     * Appends the delete record of a player and updates the index. The caller must hold the lock.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    private void appendDelete(UUID playerId) throws IOException {
+        var previous = _index.get(playerId);
+        if (previous == null)
+            return;
+
+        beginRecord(OP_DELETE, playerId);
+        endRecord();
+        _index.remove(playerId);
+        _liveBytes -= recordSize(previous);
+    }
+
+    /**
+     * Appends the record of an offline mention without touching the inbox. The caller must hold the lock.
+     *
+     * @param mention The mention.
+     * @return The size of the record, in bytes.
+     */
+    private int writeMention(OfflineMention mention) throws IOException {
+        byte[] name = mention.mentionerName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 255)
+            throw new IOException("Mentioner name is too long: " + mention.mentionerName());
+
+        ByteBuffer record = beginRecord(OP_MENTION, mention.targetId());
+        record.putLong(mention.createdAt());
+        record.put((byte) name.length);
+        record.put(name);
+        return endRecord();
+    }
+
+    /**
+     * Appends the name record of a player without touching the names. The caller must hold the lock.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param name The name of the player.
+     * @return The size of the record, in bytes.
+     */
+    private int writeName(UUID playerId, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 255)
+            throw new IOException("Player name is too long: " + name);
+
+        ByteBuffer record = beginRecord(OP_NAME, playerId);
+        record.put((byte) bytes.length);
+        record.put(bytes);
+        return endRecord();
+    }
+
+    /**
+     * Drops the expired mentions of an inbox, and the oldest ones beyond the configured capacity.
+     *
+     * @param mentions The inbox, oldest first.
+     * @param cutoff The time before which mentions are expired, or 0 if they never expire.
+     * @return The size of the dropped records, in bytes.
+     */
+    private int trimInbox(ArrayDeque<OfflineMention> mentions, long cutoff) {
+        int capacity = _config.offlineMentionCapacity;
+        int dropped = 0;
+        while (!mentions.isEmpty() && ((capacity > 0 && mentions.size() > capacity) || mentions.peekFirst().createdAt() < cutoff)) {
+            dropped += mentionRecordSize(mentions.pollFirst());
+        }
+        return dropped;
+    }
+
+    /**
+     * Starts encoding a record into the encode buffer.
+     */
+    private ByteBuffer beginRecord(byte op, UUID playerId) throws IOException {
+        if (_log == null)
+            throw new IOException("The storage log is not open.");
+        ByteBuffer record = _encodeBuffer.clear();
+        record.put(op);
+        record.putLong(playerId.getMostSignificantBits());
+        record.putLong(playerId.getLeastSignificantBits());
+        return record;
+    }
+
+    /**
+     * Appends the encoded record to the end of the log.
+     *
+     * @return The size of the record, in bytes.
+     */
+    private int endRecord() throws IOException {
+        return _log.append(_encodeBuffer.array(), 0, _encodeBuffer.position());
+    }
+
+    /**
+     * Gets the size of the record holding the given data.
+     */
+    private static int recordSize(PlayerDatabaseData data) {
+        return RECORD_HEADER_SIZE + PUT_FIXED_SIZE + data.SoundName.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Gets the size of the record holding the given name.
+     */
+    private static int nameRecordSize(String name) {
+        return RECORD_HEADER_SIZE + NAME_FIXED_SIZE + name.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Gets the size of the record holding the given mention.
+     */
+    private static int mentionRecordSize(OfflineMention mention) {
+        return RECORD_HEADER_SIZE + MENTION_FIXED_SIZE + mention.mentionerName().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Starts a background compaction if most of the log is garbage. The caller must hold the lock.
+     */
+    private void scheduleCompaction() {
+        int tail = _log.getTail();
+        if (tail < COMPACT_MIN_SIZE || _liveBytes * 2 > tail - HEADER_SIZE)
+            return;
+        if (!OpenMentions.Instance.isEnabled() || !_compacting.compareAndSet(false, true))
+            return;
+
+        Bukkit.getScheduler().runTaskAsynchronously(OpenMentions.Instance, () -> {
+            try {
+                compact();
+            } finally {
+                _compacting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Rewrites the live records into a new log file and swaps it in.
+     * Reads keep being served from the index while this runs, writers wait for it to finish.
+     */
+    public void compact() {
+        synchronized (_lock) {
+            if (_log == null)
+                return;
+
+            Path livePath = _path;
+            Path compactPath = livePath.resolveSibling(livePath.getFileName() + ".compact");
+            int oldSize = _log.getTail();
+            List<PlayerDatabaseData> live = new ArrayList<>(_index.values());
+            try {
+                Files.deleteIfExists(compactPath);
+                close();
+                _path = compactPath;
+                try {
+                    open();
+                    _liveBytes = 0;
+                    for (var data : live) {
+                        _liveBytes += writePut(data);
+                    }
+                    for (var entry : _names.entrySet()) {
+                        _liveBytes += writeName(entry.getKey(), entry.getValue());
+                    }
+                    for (var mentions : _inbox.values()) {
+                        for (var mention : mentions) {
+                            _liveBytes += writeMention(mention);
+                        }
+                    }
+                    close();
+                } finally {
+                    _path = livePath;
+                }
+                // Both files have been closed and unmapped above, Windows refuses to replace a file that is still mapped.
+                // The live file is only mapped again after the swap.
+                Files.move(compactPath, livePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // The live bytes already describe the new file and the index did not change, only the end of the log is needed
+                open();
+                _log.replay((payload, length) -> { });
+                _logger.Debug(String.format("Compacted the storage log from %d to %d bytes.", oldSize, _log.getTail()));
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while compacting the storage log...\n%s", ex.getMessage()));
+                // Fall back to the untouched log
+                try {
+                    close();
+                    open();
+                    replay();
+                } catch (Exception reopenEx) {
+                    _logger.Error(String.format("Unknown error happened while reopening the storage log...\n%s", reopenEx.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a new player's data to the log.
+     *
+     * @param playerId   The UUID of the player.
+     * @param soundKey   The sound key associated with the player.
+     * @param display    The display preference of the player.
+     * @param preference The mention preference of the player.
+     */
+    @Override
+    public void addData(UUID playerId, String soundKey, EMentionDisplay display, EMentionPreference preference) {
+        updateData(playerId, soundKey, display, preference);
+    }
+
+    /**
+     * Adds the data of several players, skipping players that already have data.
+     *
+     * @param datas The data to add, one entry per player.
+     */
+    @Override
+    public void addDatas(Collection<PlayerDatabaseData> datas) {
+        synchronized (_lock) {
+            try {
+                for (var data : datas) {
+                    if (!_index.containsKey(data.PlayerId))
+                        appendPut(data);
+                }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while adding player data batch...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Updates the sound key for a specific player, if the player has data.
+     *
+     * @param playerId The UUID of the player.
+     * @param soundKey The new sound key to associate with the player.
+     */
+    @Override
+    public void updateSound(UUID playerId, String soundKey) {
+        var data = _index.get(playerId);
+        if (data != null)
+            updateDatas(List.of(data.withSoundName(soundKey)));
+    }
+
+    /**
+     * Updates the display preference for a specific player, if the player has data.
+     *
+     * @param playerId The UUID of the player.
+     * @param display  The new display preference to associate with the player.
+     */
+    @Override
+    public void updateDisplay(UUID playerId, EMentionDisplay display) {
+        var data = _index.get(playerId);
+        if (data != null)
+            updateDatas(List.of(data.withDisplay(display)));
+    }
+
+    /**
+     * Updates the mention preference for a specific player, if the player has data.
+     *
+     * @param playerId   The UUID of the player.
+     * @param preference The new mention preference to associate with the player.
+     */
+    @Override
+    public void updatePreference(UUID playerId, EMentionPreference preference) {
+        var data = _index.get(playerId);
+        if (data != null)
+            updateDatas(List.of(data.withPreference(preference)));
+    }
+
+    /**
+     * Updates all data for a specific player, creating it if it is missing.
+     *
+     * @param playerId   The UUID of the player.
+     * @param soundKey   The new sound key to associate with the player.
+     * @param display    The new display preference to associate with the player.
+     * @param preference The new mention preference to associate with the player.
+     */
+    @Override
+    public void updateData(UUID playerId, String soundKey, EMentionDisplay display, EMentionPreference preference) {
+        updateDatas(List.of(new PlayerDatabaseData(playerId, soundKey, display, preference)));
+    }
+
+    /**
+     * Updates all data for several players, creating missing players.
+     *
+     * @param datas The data to write, one entry per player.
+     * @return True if the batch was written, false if it failed.
+     */
+    @Override
+    public boolean updateDatas(Collection<PlayerDatabaseData> datas) {
+        if (datas.isEmpty())
+            return true;
+
+        synchronized (_lock) {
+            try {
+                for (var data : datas) {
+                    appendPut(data);
+                }
+                scheduleCompaction();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes a player's data from the log.
+     *
+     * @param playerId The UUID of the player to remove.
+     */
+    @Override
+    public void removeData(UUID playerId) {
+        removeDatas(List.of(playerId));
+    }
+
+    /**
+     * Removes the data of several players.
+     *
+     * @param playerIds The UUIDs of the players to remove.
+     * @return True if the batch was written, false if it failed.
+     */
+    @Override
+    public boolean removeDatas(Collection<UUID> playerIds) {
+        if (playerIds.isEmpty())
+            return true;
+
+        synchronized (_lock) {
+            try {
+                for (var playerId : playerIds) {
+                    appendDelete(playerId);
+                }
+                scheduleCompaction();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while removing player data...\n%s", ex.getMessage()));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a player's data exists.
+     *
+     * @param playerId The UUID of the player to check.
+     * @return True if the player's data exists, false otherwise.
+     */
+    @Override
+    public boolean hasData(UUID playerId) {
+        return _index.containsKey(playerId);
+    }
+
+    /**
+     * Retrieves all player data.
+     *
+     * @return A list of PlayerDatabaseData objects representing all players' data.
+     */
+    @Override
+    public List<PlayerDatabaseData> getDatas() {
+        return new ArrayList<>(_index.values());
+    }
+
+    /**
+     * Retrieves a specific player's data.
+     *
+     * @param playerId The UUID of the player to retrieve.
+     * @return A PlayerDatabaseData object representing the player's data, or null if not found.
+     */
+    @Override
+    public @Nullable PlayerDatabaseData getData(UUID playerId) {
+        return _index.get(playerId);
+    }
+
+    /**
+     * Retrieves the data of several players.
+     *
+     * @param playerIds The unique identifiers of the players.
+     * @return The data found, keyed by the player's unique identifier.
+     */
+    @Override
+    public Map<UUID, PlayerDatabaseData> getDatas(Collection<UUID> playerIds) {
+        Map<UUID, PlayerDatabaseData> data = new HashMap<>();
+        for (var playerId : playerIds) {
+            var entry = _index.get(playerId);
+            if (entry != null)
+                data.put(playerId, entry);
+        }
+        return data;
+    }
+
+    /**
+     * The storage log is never shared between servers, so there are never changes made elsewhere.
+     *
+     * @return An empty collection.
+     */
+    @Override
+    public Collection<UUID> getChangedPlayers() {
+        return List.of();
+    }
+
+    /**
+     * Appends offline mentions to the log, keeping at most the configured number per player in the inbox.
+     *
+     * @param mentions The mentions to add.
+     */
+    @Override
+    public void addMentions(Collection<OfflineMention> mentions) {
+        if (mentions.isEmpty())
+            return;
+
+        synchronized (_lock) {
+            try {
+                long cutoff = _config.getOfflineMentionCutoff();
+                for (var mention : mentions) {
+                    _liveBytes += writeMention(mention);
+                    var inbox = _inbox.computeIfAbsent(mention.targetId(), id -> new ArrayDeque<>());
+                    inbox.addLast(mention);
+                    // Replaying the log trims the same way, so the dropped records need no delete record
+                    _liveBytes -= trimInbox(inbox, cutoff);
+                }
+                scheduleCompaction();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while adding offline mentions...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Retrieves the offline mentions of a player and appends a take record clearing them.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's mentions, oldest first, or null if the take record could not be written.
+     */
+    @Override
+    public @Nullable List<OfflineMention> takeMentions(UUID playerId) {
+        synchronized (_lock) {
+            var mentions = _inbox.get(playerId);
+            if (mentions == null)
+                return List.of();
+
+            try {
+                beginRecord(OP_TAKE_MENTIONS, playerId);
+                endRecord();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while taking offline mentions...\n%s", ex.getMessage()));
+                return null;
+            }
+            _inbox.remove(playerId);
+            for (var mention : mentions) {
+                _liveBytes -= mentionRecordSize(mention);
+            }
+            scheduleCompaction();
+            return new ArrayList<>(mentions);
+        }
+    }
+
+    /**
+     * Removes the offline mentions created before the given time from the inbox.
+     * Replaying the log drops expired mentions as well, so no record is written.
+     *
+     * @param createdBefore The cutoff time, in milliseconds since the epoch.
+     */
+    @Override
+    public void removeMentionsBefore(long createdBefore) {
+        synchronized (_lock) {
+            var iterator = _inbox.values().iterator();
+            while (iterator.hasNext()) {
+                var mentions = iterator.next();
+                _liveBytes -= trimInbox(mentions, createdBefore);
+                if (mentions.isEmpty())
+                    iterator.remove();
+            }
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Appends the name records of the players whose name changed.
+     *
+     * @param names The names, keyed by the unique identifier of the player.
+     */
+    @Override
+    public void updateNames(Map<UUID, String> names) {
+        if (names.isEmpty())
+            return;
+
+        synchronized (_lock) {
+            try {
+                for (var entry : names.entrySet()) {
+                    String previous = _names.get(entry.getKey());
+                    if (entry.getValue().equals(previous))
+                        continue;
+                    _liveBytes += writeName(entry.getKey(), entry.getValue());
+                    _names.put(entry.getKey(), entry.getValue());
+                    if (previous != null)
+                        _liveBytes -= nameRecordSize(previous);
+                }
+                scheduleCompaction();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while updating player names...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Retrieves the name of every player who has ever joined.
+     *
+     * @return The names, keyed by the unique identifier of the player.
+     */
+    @Override
+    public Map<UUID, String> getNames() {
+        synchronized (_lock) {
+            return new HashMap<>(_names);
+        }
+    }
+}
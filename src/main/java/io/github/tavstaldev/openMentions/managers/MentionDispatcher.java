@@ -0,0 +1,177 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.EMentionResult;
+import io.github.tavstaldev.openMentions.models.MentionNotification;
+import io.github.tavstaldev.openMentions.utils.MentionUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers mention notifications on the main thread.
+ * The async chat threads enqueue notifications into a bounded, lock-free queue, which is drained
+ * once per tick within a configurable time budget. A player with a notification still waiting
+ * does not get a second one (coalesced), and notifications are dropped while the queue is full.
+ */
+public class MentionDispatcher {
+    /** Logger instance for logging messages related to MentionDispatcher. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(MentionDispatcher.class);
+
+    private static final Queue<MentionNotification> _queue = new ConcurrentLinkedQueue<>();
+    /** Players with a notification in the queue, used to coalesce floods into one notification. */
+    private static final Set<UUID> _pendingTargets = ConcurrentHashMap.newKeySet();
+    /** Number of queued notifications, tracked separately because the queue's size() is linear. */
+    private static final AtomicInteger _depth = new AtomicInteger();
+
+    private static final LongAdder _delivered = new LongAdder();
+    private static final LongAdder _coalesced = new LongAdder();
+    private static final LongAdder _dropped = new LongAdder();
+    private static volatile long _lastDrainNanos;
+    private static volatile long _maxDrainNanos;
+
+    private static BukkitTask _task;
+
+    /**
+     * Starts draining the queue every tick.
+     */
+    public static void start() {
+        stop();
+        _task = Bukkit.getScheduler().runTaskTimer(OpenMentions.Instance, MentionDispatcher::drain, 1L, 1L);
+    }
+
+    /**
+     * Stops draining the queue and discards the notifications still waiting.
+     */
+    public static void stop() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+        _queue.clear();
+        _pendingTargets.clear();
+        _depth.set(0);
+    }
+
+    /**
+     * Queues a notification for delivery on the main thread. Safe to call from any thread.
+     *
+     * @param notification The notification to deliver.
+     * @return Whether the notification was queued, coalesced into one already waiting, or dropped.
+     */
+    public static EMentionResult enqueue(MentionNotification notification) {
+        if (!_pendingTargets.add(notification.targetId())) {
+            _coalesced.increment();
+            return EMentionResult.COALESCED;
+        }
+
+        if (_depth.incrementAndGet() > OpenMentions.Config().notificationQueueCapacity) {
+            _depth.decrementAndGet();
+            _pendingTargets.remove(notification.targetId());
+            _dropped.increment();
+            _logger.Debug("Notification queue is full, dropping mention of " + notification.targetId());
+            return EMentionResult.DROPPED;
+        }
+
+        _queue.offer(notification);
+        return EMentionResult.QUEUED;
+    }
+
+    /**
+     * Delivers queued notifications until the queue is empty or the tick budget is used up.
+     */
+    private static void drain() {
+        if (_depth.get() == 0)
+            return;
+
+        long start = System.nanoTime();
+        long budget = TimeUnit.MICROSECONDS.toNanos(OpenMentions.Config().notificationTickBudget);
+        MentionNotification notification;
+        while ((notification = _queue.poll()) != null) {
+            _depth.decrementAndGet();
+            _pendingTargets.remove(notification.targetId());
+
+            Player player = Bukkit.getPlayer(notification.targetId());
+            if (player != null) {
+                try {
+                    MentionUtils.sendMention(player, notification);
+                    _delivered.increment();
+                } catch (Exception ex) {
+                    _logger.Error("Failed to deliver mention to " + player.getName() + ": " + ex.getMessage());
+                }
+            }
+
+            if (System.nanoTime() - start >= budget)
+                break;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        _lastDrainNanos = elapsed;
+        if (elapsed > _maxDrainNanos)
+            _maxDrainNanos = elapsed;
+    }
+
+    /**
+     * Gets the number of notifications waiting in the queue.
+     *
+     * @return The queue depth.
+     */
+    public static int getQueueDepth() {
+        return _depth.get();
+    }
+
+    /**
+     * Gets the time spent by the last drain that delivered anything.
+     *
+     * @return The drain time in nanoseconds.
+     */
+    public static long getLastDrainNanos() {
+        return _lastDrainNanos;
+    }
+
+    /**
+     * Gets the longest time spent by a single drain.
+     *
+     * @return The drain time in nanoseconds.
+     */
+    public static long getMaxDrainNanos() {
+        return _maxDrainNanos;
+    }
+
+    /**
+     * Gets the number of delivered notifications.
+     *
+     * @return The delivered notification count.
+     */
+    public static long getDeliveredCount() {
+        return _delivered.sum();
+    }
+
+    /**
+     * Gets the number of notifications merged into one already waiting for the same player.
+     *
+     * @return The coalesced notification count.
+     */
+    public static long getCoalescedCount() {
+        return _coalesced.sum();
+    }
+
+    /**
+     * Gets the number of notifications dropped because the queue was full.
+     *
+     * @return The dropped notification count.
+     */
+    public static long getDroppedCount() {
+        return _dropped.sum();
+    }
+}
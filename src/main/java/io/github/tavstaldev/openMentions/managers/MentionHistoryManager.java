@@ -0,0 +1,77 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.MentionHistory;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the recent mentions of every online player, for the '/mentions history' command.
+ * Each player gets a fixed-size MentionHistory on join, which is dropped on quit,
+ * so the memory used depends on the number of online players only, not on the amount of chat.
+ */
+public class MentionHistoryManager {
+    /** A map storing the history of each online player, keyed by the player's unique identifier (UUID). */
+    private static final Map<UUID, MentionHistory> _histories = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the history of a player who joined, using the configured size.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public static void addPlayer(UUID playerId) {
+        var config = OpenMentions.Config();
+        if (config.historySize <= 0)
+            return;
+        _histories.putIfAbsent(playerId, new MentionHistory(config.historySize, config.historyExcerptLength));
+    }
+
+    /**
+     * Creates the history of every online player.
+     * Used when the plugin is (re)enabled, since players already online did not trigger a join.
+     */
+    public static void addPlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            addPlayer(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Drops the history of a player who left.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public static void removePlayer(UUID playerId) {
+        _histories.remove(playerId);
+    }
+
+    /**
+     * Records a mention in the history of a player. Does nothing if the player has no history.
+     * Safe to call from the async chat threads.
+     *
+     * @param playerId The unique identifier of the mentioned player.
+     * @param mentionerId The unique identifier of the player who sent the mention.
+     * @param message The message holding the mention.
+     */
+    public static void record(UUID playerId, UUID mentionerId, String message) {
+        var history = _histories.get(playerId);
+        if (history != null)
+            history.add(mentionerId, System.currentTimeMillis(), message);
+    }
+
+    /**
+     * Reads the recent mentions of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The mentions, newest first.
+     */
+    public static List<MentionHistory.Entry> getEntries(UUID playerId) {
+        var history = _histories.get(playerId);
+        return history == null ? List.of() : history.getEntries();
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.EMentionPreference;
+import io.github.tavstaldev.openMentions.models.OfflineMention;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the mentions of offline players until they join.
+ * The chat threads only queue the mentions, which are written to the database's inbox in one batch
+ * every second. When the player joins, their whole inbox is taken and delivered as a single summary.
+ */
+public class MentionInboxManager {
+    /** Logger instance for logging messages related to MentionInboxManager. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(MentionInboxManager.class);
+
+    /** How often the queued mentions are written, in ticks. */
+    private static final long FLUSH_INTERVAL_TICKS = 20L;
+    /** How often the expired mentions are removed, in milliseconds. */
+    private static final long PRUNE_INTERVAL = 60_000L;
+    /** Largest number of mentions waiting to be written. Further mentions are dropped while the queue is full. */
+    private static final int MAX_QUEUED = 4096;
+    /** Largest number of mentioner names listed in the summary. */
+    private static final int MAX_SUMMARY_NAMES = 3;
+
+    /** Mentions waiting to be written. */
+    private static final Queue<OfflineMention> _queue = new ConcurrentLinkedQueue<>();
+    /** Number of mentions in the queue, tracked separately since the queue's size is not constant time. */
+    private static final AtomicInteger _queued = new AtomicInteger();
+    /** Serializes the flushes, so the batches are written in order. */
+    private static final Object _flushLock = new Object();
+    /** When the expired mentions were last removed, in milliseconds. */
+    private static long _lastPrune;
+
+    private static BukkitTask _task;
+
+    /**
+     * Starts writing the queued mentions periodically.
+     */
+    public static void start() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+        _task = Bukkit.getScheduler().runTaskTimerAsynchronously(OpenMentions.Instance, MentionInboxManager::flush, FLUSH_INTERVAL_TICKS, FLUSH_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stops the periodic flush and writes everything still queued on the calling thread.
+     */
+    public static void stop() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+        flush();
+    }
+
+    /**
+     * Queues the mention of an offline player. Never blocks, safe to call from the chat threads.
+     *
+     * @param targetId The unique identifier of the mentioned player.
+     * @param mentionerName The name of the player who mentioned them.
+     */
+    public static void record(UUID targetId, String mentionerName) {
+        if (_queued.incrementAndGet() > MAX_QUEUED) {
+            _queued.decrementAndGet();
+            _logger.Debug("The offline mention queue is full, dropping the mention of " + targetId + ".");
+            return;
+        }
+        _queue.add(new OfflineMention(targetId, mentionerName, System.currentTimeMillis()));
+    }
+
+    /**
+     * Writes every queued mention in a single batch, and removes the expired mentions once a minute.
+     * Blocks on the database.
+     */
+    public static void flush() {
+        synchronized (_flushLock) {
+            if (!_queue.isEmpty()) {
+                List<OfflineMention> batch = new ArrayList<>();
+                OfflineMention mention;
+                while ((mention = _queue.poll()) != null) {
+                    batch.add(mention);
+                }
+                _queued.addAndGet(-batch.size());
+                OpenMentions.Database.addMentions(batch);
+            }
+
+            long now = System.currentTimeMillis();
+            long cutoff = OpenMentions.Config().getOfflineMentionCutoff();
+            if (cutoff > 0 && now - _lastPrune > PRUNE_INTERVAL) {
+                _lastPrune = now;
+                OpenMentions.Database.removeMentionsBefore(cutoff);
+            }
+        }
+    }
+
+    /**
+     * Takes the inbox of a player who joined and sends them a single summary of it.
+     * The inbox is read asynchronously and the summary is sent on the main thread.
+     *
+     * @param player The player who joined.
+     */
+    public static void deliver(Player player) {
+        var playerId = player.getUniqueId();
+        Bukkit.getScheduler().runTaskAsynchronously(OpenMentions.Instance, () -> {
+            // Mentions made just before the player joined might still be queued
+            flush();
+            var mentions = OpenMentions.Database.takeMentions(playerId);
+            if (mentions == null || mentions.isEmpty())
+                return;
+
+            long cutoff = OpenMentions.Config().getOfflineMentionCutoff();
+            List<OfflineMention> pending = new ArrayList<>(mentions.size());
+            for (var mention : mentions) {
+                if (mention.createdAt() >= cutoff)
+                    pending.add(mention);
+            }
+            if (pending.isEmpty())
+                return;
+
+            Bukkit.getScheduler().runTask(OpenMentions.Instance, () -> {
+                if (!player.isOnline()) {
+                    // Keep them for the next join
+                    for (var mention : pending) {
+                        _queue.add(mention);
+                        _queued.incrementAndGet();
+                    }
+                    return;
+                }
+
+                var data = PlayerCacheManager.getPlayerData(playerId);
+                if (data != null && data.Preference == EMentionPreference.NEVER)
+                    return;
+                OpenMentions.Instance.sendLocalizedMsg(player, "General.OfflineMentions", Map.of(
+                        "count", pending.size(),
+                        "players", summarizeNames(pending)
+                ));
+            });
+        });
+    }
+
+    /**
+     * Lists the distinct mentioner names of an inbox, most recent first.
+     *
+     * @param mentions The mentions, oldest first.
+     * @return The names, followed by the number of names left out if there are too many.
+     */
+    private static String summarizeNames(List<OfflineMention> mentions) {
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = mentions.size() - 1; i >= 0; i--) {
+            names.add(mentions.get(i).mentionerName());
+        }
+
+        StringBuilder builder = new StringBuilder();
+        int listed = 0;
+        for (var name : names) {
+            if (listed == MAX_SUMMARY_NAMES)
+                break;
+            if (listed > 0)
+                builder.append(", ");
+            builder.append(name);
+            listed++;
+        }
+        if (names.size() > listed)
+            builder.append(" (+").append(names.size() - listed).append(')');
+        return builder.toString();
+    }
+}
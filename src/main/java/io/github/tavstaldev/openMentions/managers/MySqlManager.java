@@ -8,14 +8,27 @@ import io.github.tavstaldev.openMentions.OpenMentions;
 import io.github.tavstaldev.openMentions.models.EMentionDisplay;
 import io.github.tavstaldev.openMentions.models.EMentionPreference;
 import io.github.tavstaldev.openMentions.models.IDatabase;
+import io.github.tavstaldev.openMentions.models.OfflineMention;
 import io.github.tavstaldev.openMentions.models.PlayerDatabaseData;
+import io.github.tavstaldev.openMentions.utils.MySqlMigrations;
+import io.github.tavstaldev.openMentions.utils.UuidUtils;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -31,6 +44,37 @@ public class MySqlManager implements IDatabase {
     /** Logger instance for logging messages related to MySqlManager. */
     private static final PluginLogger _logger = OpenMentions.Logger().WithModule(MySqlManager.class);
 
+    /** Largest number of players looked up by a single query. */
+    private static final int MAX_LOOKUP_BATCH = 500;
+    /** The schema version this build of the plugin reads and writes. */
+    private static final int SCHEMA_VERSION = 2;
+    /** Largest number of change log entries read by a single poll. */
+    private static final int MAX_CHANGES_PER_POLL = 1000;
+    /** How long change log entries are kept, in seconds. Servers offline for longer reload players on join anyway. */
+    private static final int CHANGE_RETENTION = 600;
+    /** How long a skipped change log id is retried, in milliseconds. Its transaction is assumed to have rolled back after that. */
+    private static final long GAP_TIMEOUT = 60_000L;
+    /** Largest number of skipped change log ids retried at once. */
+    private static final int MAX_GAPS = 10_000;
+
+    /** Identifies the changes written by this server, so it does not reread its own writes. */
+    private final byte[] _serverId = UuidUtils.toBytes(UUID.randomUUID());
+    /** Id of the last change log entry that has been read, or -1 before the first poll. */
+    private long _lastChangeId = -1;
+    /** When the change log was last pruned, in milliseconds. */
+    private long _lastPrune;
+    /**
+     * Change log ids skipped by the range query, with the time they were first missed.
+     * Ids are handed out on insert but become visible on commit, so a lower id can show up after a higher one.
+     */
+    private final Map<Long, Long> _gaps = new LinkedHashMap<>();
+    /**
+     * Turns an insert of every column into an upsert.
+     * VALUES() is deprecated since MySQL 8.0.20, but the row alias replacing it is not supported by MariaDB
+     * or MySQL before 8.0.19, and VALUES() still works everywhere.
+     */
+    private static final String UPSERT_CLAUSE = "ON DUPLICATE KEY UPDATE Sound=VALUES(Sound), Display=VALUES(Display), Preference=VALUES(Preference);";
+
     /**
      * Initializes the database connection pool.
      */
@@ -67,8 +111,19 @@ public class MySqlManager implements IDatabase {
                     _config.storageDatabase));
             config.setUsername(_config.storageUsername);
             config.setPassword(_config.storagePassword);
-            config.setMaximumPoolSize(10); // Pool size defaults to 10
-            config.setMaxLifetime(30000);
+            config.setPoolName("OpenMentions");
+            config.setMaximumPoolSize(_config.storagePoolSize);
+            config.setMinimumIdle(Math.min(_config.storagePoolMinIdle, _config.storagePoolSize));
+            config.setMaxLifetime(_config.storageMaxLifetime);
+            config.setIdleTimeout(_config.storageIdleTimeout);
+            config.setConnectionTimeout(_config.storageConnectionTimeout);
+            config.setKeepaliveTime(_config.storageKeepaliveTime);
+            // Driver side statement caching and batch rewriting
+            config.addDataSourceProperty("cachePrepStmts", _config.storageCachePrepStmts);
+            config.addDataSourceProperty("prepStmtCacheSize", _config.storagePrepStmtCacheSize);
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", _config.storagePrepStmtCacheSqlLimit);
+            config.addDataSourceProperty("useServerPrepStmts", _config.storageUseServerPrepStmts);
+            config.addDataSourceProperty("rewriteBatchedStatements", _config.storageRewriteBatchedStatements);
             return new HikariDataSource(config);
         } catch (Exception ex) {
             _logger.Error(String.format("Unknown error happened during the creation of database connection...\n%s", ex.getMessage()));
@@ -77,27 +132,127 @@ public class MySqlManager implements IDatabase {
     }
 
     /**
-     * Ensures the database schema is created. Creates the players table if it does not exist.
+     * Ensures the database schema is created and up-to-date.
+     * Creates the players table if it does not exist, otherwise migrates it to the current schema version.
      */
     @Override
     public void checkSchema() {
         try (Connection connection = _dataSource.getConnection()) {
-            // Players table
-            String sql = String.format("CREATE TABLE IF NOT EXISTS %s_players (" +
-                            "PlayerId VARCHAR(36) PRIMARY KEY, " +
-                            "Sound VARCHAR(200) NOT NULL, " +
-                            "Display VARCHAR(32) NOT NULL, " +
-                            "Preference VARCHAR(32) NOT NULL);",
-                    _config.storageTablePrefix);
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.executeUpdate();
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(String.format("CREATE TABLE IF NOT EXISTS %s_schema (" +
+                                "Id INT PRIMARY KEY, " +
+                                "Version INT NOT NULL);",
+                        _config.storageTablePrefix));
+            }
+
+            // Change log read by the other servers sharing the database
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(String.format("CREATE TABLE IF NOT EXISTS %s_changes (" +
+                                "Id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                                "PlayerId BINARY(16) NOT NULL, " +
+                                "Origin BINARY(16) NOT NULL, " +
+                                "CreatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                                "INDEX (CreatedAt));",
+                        _config.storageTablePrefix));
+            }
+
+            // Offline mention inbox, only ever appended to and cleared
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(String.format("CREATE TABLE IF NOT EXISTS %s_inbox (" +
+                                "Id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                                "PlayerId BINARY(16) NOT NULL, " +
+                                "MentionerName VARCHAR(16) NOT NULL, " +
+                                "CreatedAt BIGINT NOT NULL, " +
+                                "INDEX (PlayerId, Id), " +
+                                "INDEX (CreatedAt));",
+                        _config.storageTablePrefix));
+            }
+
+            // Names of every player who has ever joined
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(String.format("CREATE TABLE IF NOT EXISTS %s_names (" +
+                                "PlayerId BINARY(16) NOT NULL PRIMARY KEY, " +
+                                "Name VARCHAR(16) NOT NULL);",
+                        _config.storageTablePrefix));
+            }
+
+            int version = getSchemaVersion(connection);
+            if (version > SCHEMA_VERSION) {
+                _logger.Warn(String.format("The database schema (version %d) is newer than this version of the plugin supports (version %d).", version, SCHEMA_VERSION));
+                return;
+            }
+            if (version == 0) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(MySqlMigrations.createPlayersTableSql(_config.storageTablePrefix + "_players"));
+                }
+                setSchemaVersion(connection, SCHEMA_VERSION);
+                return;
+            }
+
+            while (version < SCHEMA_VERSION) {
+                _logger.Info(String.format("Migrating the database schema from version %d to version %d...", version, version + 1));
+                switch (version) {
+                    case 1 -> {
+                        int copied = MySqlMigrations.migrateToBinary(connection, _config.storageTablePrefix + "_players");
+                        _logger.Info(String.format("Migrated %d player rows to the binary schema.", copied));
+                    }
+                    default -> throw new SQLException("No migration from schema version " + version);
+                }
+                version++;
+                setSchemaVersion(connection, version);
+            }
         } catch (Exception ex) {
             _logger.Error(String.format("Unknown error happened while creating tables...\n%s", ex.getMessage()));
         }
     }
 
     /**
-     * Adds a new player's data to the database.
+     * Reads the schema version of the database. Databases created before the version table existed
+     * are recognised by the type of their PlayerId column.
+     *
+     * @param connection The connection to use.
+     * @return The schema version, or 0 if the players table does not exist yet.
+     * @throws SQLException If the version could not be read.
+     */
+    private int getSchemaVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(String.format("SELECT Version FROM %s_schema WHERE Id=1;", _config.storageTablePrefix))) {
+            if (result.next())
+                return result.getInt("Version");
+        }
+
+        String playerIdType = null;
+        try (ResultSet result = connection.getMetaData().getColumns(connection.getCatalog(), null, _config.storageTablePrefix + "_players", "PlayerId")) {
+            if (result.next())
+                playerIdType = result.getString("TYPE_NAME");
+        }
+        if (playerIdType == null)
+            return 0;
+        // The first schema stored the UUIDs as text
+        int version = playerIdType.toUpperCase(Locale.ROOT).contains("CHAR") ? 1 : SCHEMA_VERSION;
+        setSchemaVersion(connection, version);
+        return version;
+    }
+
+    /**
+     * Stores the schema version of the database.
+     *
+     * @param connection The connection to use.
+     * @param version The schema version.
+     * @throws SQLException If the version could not be stored.
+     */
+    private void setSchemaVersion(Connection connection, int version) throws SQLException {
+        String sql = String.format("INSERT INTO %s_schema (Id, Version) VALUES (1, ?) ON DUPLICATE KEY UPDATE Version=?;",
+                _config.storageTablePrefix);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, version);
+            statement.setInt(2, version);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Adds a new player's data to the database, replacing the existing data if the player already has a row.
      *
      * @param playerId   The UUID of the player.
      * @param soundKey   The sound key associated with the player.
@@ -108,17 +263,56 @@ public class MySqlManager implements IDatabase {
     public void addData(UUID playerId, String soundKey, EMentionDisplay display, EMentionPreference preference) {
         try (Connection connection = _dataSource.getConnection()) {
             String sql = String.format("INSERT INTO %s_players (PlayerId, Sound, Display, Preference) " +
-                            "VALUES (?, ?, ?, ?);",
+                            "VALUES (?, ?, ?, ?) " + UPSERT_CLAUSE,
                     _config.storageTablePrefix);
+            writeLogged(connection, List.of(playerId), () -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setBytes(1, UuidUtils.toBytes(playerId));
+                    statement.setString(2, soundKey);
+                    statement.setInt(3, display.getCode());
+                    statement.setInt(4, preference.getCode());
+                    statement.executeUpdate();
+                }
+            });
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Adds the data of several players in a single JDBC batch and transaction.
+     * Players that already have a row are left untouched.
+     *
+     * @param datas The data to add, one entry per player.
+     */
+    @Override
+    public void addDatas(Collection<PlayerDatabaseData> datas) {
+        if (datas.isEmpty())
+            return;
+
+        try (Connection connection = _dataSource.getConnection()) {
+            String sql = String.format("INSERT INTO %s_players (PlayerId, Sound, Display, Preference) " +
+                            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE PlayerId=PlayerId;",
+                    _config.storageTablePrefix);
+            connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, playerId.toString());
-                statement.setString(2, soundKey);
-                statement.setString(3, display.name());
-                statement.setString(4, preference.name());
-                statement.executeUpdate();
+                for (var data : datas) {
+                    statement.setBytes(1, UuidUtils.toBytes(data.PlayerId));
+                    statement.setString(2, data.SoundName);
+                    statement.setInt(3, data.Display.getCode());
+                    statement.setInt(4, data.Preference.getCode());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
         } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
+            _logger.Error(String.format("Unknown error happened while adding player data batch...\n%s", ex.getMessage()));
         }
     }
 
@@ -133,11 +327,13 @@ public class MySqlManager implements IDatabase {
         try (Connection connection = _dataSource.getConnection()) {
             String sql = String.format("UPDATE %s_players SET Sound=? WHERE PlayerId=?;",
                     _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, soundKey);
-                statement.setString(2, playerId.toString());
-                statement.executeUpdate();
-            }
+            writeLogged(connection, List.of(playerId), () -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setString(1, soundKey);
+                    statement.setBytes(2, UuidUtils.toBytes(playerId));
+                    statement.executeUpdate();
+                }
+            });
         } catch (Exception ex) {
             _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
         }
@@ -154,11 +350,13 @@ public class MySqlManager implements IDatabase {
         try (Connection connection = _dataSource.getConnection()) {
             String sql = String.format("UPDATE %s_players SET Display=? WHERE PlayerId=?;",
                     _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, display.name());
-                statement.setString(2, playerId.toString());
-                statement.executeUpdate();
-            }
+            writeLogged(connection, List.of(playerId), () -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setInt(1, display.getCode());
+                    statement.setBytes(2, UuidUtils.toBytes(playerId));
+                    statement.executeUpdate();
+                }
+            });
         } catch (Exception ex) {
             _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
         }
@@ -175,18 +373,20 @@ public class MySqlManager implements IDatabase {
         try (Connection connection = _dataSource.getConnection()) {
             String sql = String.format("UPDATE %s_players SET Preference=? WHERE PlayerId=?;",
                     _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, preference.name());
-                statement.setString(2, playerId.toString());
-                statement.executeUpdate();
-            }
+            writeLogged(connection, List.of(playerId), () -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setInt(1, preference.getCode());
+                    statement.setBytes(2, UuidUtils.toBytes(playerId));
+                    statement.executeUpdate();
+                }
+            });
         } catch (Exception ex) {
             _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
         }
     }
 
     /**
-     * Updates all data for a specific player in the database.
+     * Updates all data for a specific player in the database, creating the row if it is missing.
      *
      * @param playerId   The UUID of the player.
      * @param soundKey   The new sound key to associate with the player.
@@ -195,19 +395,48 @@ public class MySqlManager implements IDatabase {
      */
     @Override
     public void updateData(UUID playerId, String soundKey, EMentionDisplay display, EMentionPreference preference) {
+        addData(playerId, soundKey, display, preference);
+    }
+
+    /**
+     * Updates all data for several players in a single JDBC batch and transaction, creating missing rows.
+     * With rewriteBatchedStatements enabled the driver sends the batch as multi-row inserts.
+     *
+     * @param datas The data to write, one entry per player.
+     * @return True if the batch was written, false if it failed.
+     */
+    @Override
+    public boolean updateDatas(Collection<PlayerDatabaseData> datas) {
+        if (datas.isEmpty())
+            return true;
+
         try (Connection connection = _dataSource.getConnection()) {
-            String sql = String.format("UPDATE %s_players SET Sound=?, Display=?, Preference=? WHERE PlayerId=?;",
+            String sql = String.format("INSERT INTO %s_players (PlayerId, Sound, Display, Preference) " +
+                            "VALUES (?, ?, ?, ?) " + UPSERT_CLAUSE,
                     _config.storageTablePrefix);
+            connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, soundKey);
-                statement.setString(2, display.name());
-                statement.setString(3, preference.name());
-                statement.setString(4, playerId.toString());
-                statement.executeUpdate();
+                for (var data : datas) {
+                    statement.setBytes(1, UuidUtils.toBytes(data.PlayerId));
+                    statement.setString(2, data.SoundName);
+                    statement.setInt(3, data.Display.getCode());
+                    statement.setInt(4, data.Preference.getCode());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                logChanges(connection, datas.stream().map(data -> data.PlayerId).toList());
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
         } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
+            _logger.Error(String.format("Unknown error happened while updating player data batch...\n%s", ex.getMessage()));
+            return false;
         }
+        return true;
     }
 
     /**
@@ -220,15 +449,206 @@ public class MySqlManager implements IDatabase {
         try (Connection connection = _dataSource.getConnection()) {
             String sql = String.format("DELETE FROM %s_players WHERE PlayerId=?;",
                     _config.storageTablePrefix);
+            writeLogged(connection, List.of(playerId), () -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setBytes(1, UuidUtils.toBytes(playerId));
+                    statement.executeUpdate();
+                }
+            });
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened during the deletion of tables...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Removes the data of several players in a single JDBC batch and transaction.
+     *
+     * @param playerIds The UUIDs of the players to remove.
+     * @return True if the batch was written, false if it failed.
+     */
+    @Override
+    public boolean removeDatas(Collection<UUID> playerIds) {
+        if (playerIds.isEmpty())
+            return true;
+
+        try (Connection connection = _dataSource.getConnection()) {
+            String sql = String.format("DELETE FROM %s_players WHERE PlayerId=?;",
+                    _config.storageTablePrefix);
+            connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, playerId.toString());
-                statement.executeUpdate();
+                for (var playerId : playerIds) {
+                    statement.setBytes(1, UuidUtils.toBytes(playerId));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                logChanges(connection, playerIds);
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
             }
         } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened during the deletion of tables...\n%s", ex.getMessage()));
+            _logger.Error(String.format("Unknown error happened while removing player data batch...\n%s", ex.getMessage()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs a single write and records the change of the given players in the same transaction.
+     * With the change feed disabled nothing is recorded, so the write runs on its own without a transaction.
+     *
+     * @param connection The connection used for the write.
+     * @param playerIds The unique identifiers of the changed players.
+     * @param write The write to run.
+     * @throws SQLException If the write or the change could not be recorded.
+     */
+    private void writeLogged(Connection connection, Collection<UUID> playerIds, SqlWrite write) throws SQLException {
+        if (!isChangeFeedEnabled()) {
+            write.run();
+            return;
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            write.run();
+            logChanges(connection, playerIds);
+            connection.commit();
+        } catch (Exception ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
         }
     }
 
+    /**
+     * Checks whether the change feed is enabled, that is whether servers poll the change log.
+     *
+     * @return True if the change feed is enabled, false otherwise.
+     */
+    private boolean isChangeFeedEnabled() {
+        return _config.storageSyncInterval > 0;
+    }
+
+    /**
+     * Records that the data of some players changed, so the other servers sharing the database refresh them.
+     * Runs on the caller's connection, inside its transaction if it has one.
+     * Does nothing if the change feed is disabled, as no server reads the log then.
+     *
+     * @param connection The connection used for the write.
+     * @param playerIds The unique identifiers of the changed players.
+     * @throws SQLException If the changes could not be recorded.
+     */
+    private void logChanges(Connection connection, Collection<UUID> playerIds) throws SQLException {
+        if (playerIds.isEmpty() || !isChangeFeedEnabled())
+            return;
+
+        String sql = String.format("INSERT INTO %s_changes (PlayerId, Origin) VALUES (?, ?);",
+                _config.storageTablePrefix);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (var playerId : playerIds) {
+                statement.setBytes(1, UuidUtils.toBytes(playerId));
+                statement.setBytes(2, _serverId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Retrieves the players changed by other servers since the last call, reading the change log
+     * with a single range query on its primary key. The first call only finds the end of the log.
+     * Ids skipped by the range query are retried until they show up or time out, so changes committed
+     * out of order are not lost.
+     *
+     * @return The unique identifiers of the changed players.
+     */
+    @Override
+    public synchronized Collection<UUID> getChangedPlayers() {
+        Set<UUID> changed = new HashSet<>();
+        if (!isChangeFeedEnabled())
+            return changed;
+
+        try (Connection connection = _dataSource.getConnection()) {
+            if (_lastChangeId < 0) {
+                try (Statement statement = connection.createStatement();
+                     ResultSet result = statement.executeQuery(String.format("SELECT COALESCE(MAX(Id), 0) FROM %s_changes;", _config.storageTablePrefix))) {
+                    if (result.next())
+                        _lastChangeId = result.getLong(1);
+                }
+                return changed;
+            }
+
+            long now = System.currentTimeMillis();
+            if (!_gaps.isEmpty())
+                readGaps(connection, changed, now);
+
+            String sql = String.format("SELECT Id, PlayerId, Origin FROM %s_changes WHERE Id > ? ORDER BY Id LIMIT %d;",
+                    _config.storageTablePrefix, MAX_CHANGES_PER_POLL);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, _lastChangeId);
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        long id = result.getLong("Id");
+                        // The ids in between might belong to transactions that have not committed yet
+                        for (long gap = _lastChangeId + 1; gap < id && _gaps.size() < MAX_GAPS; gap++) {
+                            _gaps.put(gap, now);
+                        }
+                        _lastChangeId = id;
+                        if (!Arrays.equals(result.getBytes("Origin"), _serverId))
+                            changed.add(UuidUtils.fromBytes(result.getBytes("PlayerId")));
+                    }
+                }
+            }
+
+            if (now - _lastPrune > 60_000L) {
+                _lastPrune = now;
+                sql = String.format("DELETE FROM %s_changes WHERE CreatedAt < NOW() - INTERVAL %d SECOND;",
+                        _config.storageTablePrefix, CHANGE_RETENTION);
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(sql);
+                }
+            }
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while reading the change log...\n%s", ex.getMessage()));
+        }
+        return changed;
+    }
+
+    /**
+     * Reads the change log entries skipped by earlier polls that have been committed since,
+     * and gives up on the ones missing for longer than {@link #GAP_TIMEOUT}.
+     *
+     * @param connection The connection used for the poll.
+     * @param changed The set receiving the players changed by other servers.
+     * @param now The current time, in milliseconds.
+     * @throws SQLException If the change log could not be read.
+     */
+    private void readGaps(Connection connection, Set<UUID> changed, long now) throws SQLException {
+        long[] ids = _gaps.keySet().stream().mapToLong(Long::longValue).toArray();
+        for (int offset = 0; offset < ids.length; offset += MAX_LOOKUP_BATCH) {
+            int count = Math.min(MAX_LOOKUP_BATCH, ids.length - offset);
+            String sql = String.format("SELECT Id, PlayerId, Origin FROM %s_changes WHERE Id IN (%s);",
+                    _config.storageTablePrefix, "?" + ",?".repeat(count - 1));
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < count; i++) {
+                    statement.setLong(i + 1, ids[offset + i]);
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        _gaps.remove(result.getLong("Id"));
+                        if (!Arrays.equals(result.getBytes("Origin"), _serverId))
+                            changed.add(UuidUtils.fromBytes(result.getBytes("PlayerId")));
+                    }
+                }
+            }
+        }
+        _gaps.values().removeIf(missedAt -> now - missedAt > GAP_TIMEOUT);
+    }
+
     /**
      * Checks if a player's data exists in the database.
      *
@@ -255,10 +675,10 @@ public class MySqlManager implements IDatabase {
                 try (ResultSet result = statement.executeQuery()) {
                     while (result.next()) {
                         data.add(new PlayerDatabaseData(
-                                UUID.fromString(result.getString("PlayerId")),
+                                UuidUtils.fromBytes(result.getBytes("PlayerId")),
                                 result.getString("Sound"),
-                                EMentionDisplay.valueOf(result.getString("Display")),
-                                EMentionPreference.valueOf(result.getString("Preference"))
+                                EMentionDisplay.fromCode(result.getInt("Display")),
+                                EMentionPreference.fromCode(result.getInt("Preference"))
                         ));
                     }
                 }
@@ -283,14 +703,14 @@ public class MySqlManager implements IDatabase {
             String sql = String.format("SELECT * FROM %s_players WHERE PlayerId=? LIMIT 1;",
                     _config.storageTablePrefix);
             try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, playerId.toString());
+                statement.setBytes(1, UuidUtils.toBytes(playerId));
                 try (ResultSet result = statement.executeQuery()) {
                     if (result.next()) {
                         data = new PlayerDatabaseData(
-                                UUID.fromString(result.getString("PlayerId")),
+                                UuidUtils.fromBytes(result.getBytes("PlayerId")),
                                 result.getString("Sound"),
-                                EMentionDisplay.valueOf(result.getString("Display")),
-                                EMentionPreference.valueOf(result.getString("Preference"))
+                                EMentionDisplay.fromCode(result.getInt("Display")),
+                                EMentionPreference.fromCode(result.getInt("Preference"))
                         );
                     }
                 }
@@ -301,4 +721,220 @@ public class MySqlManager implements IDatabase {
         }
         return data;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the data of several players, using one IN query per chunk of players.
+     *
+     * @param playerIds The unique identifiers of the players.
+     * @return The data found, keyed by the player's unique identifier, or null if the lookup failed.
+     */
+    @Override
+    public @Nullable Map<UUID, PlayerDatabaseData> getDatas(Collection<UUID> playerIds) {
+        Map<UUID, PlayerDatabaseData> data = new HashMap<>();
+        if (playerIds.isEmpty())
+            return data;
+
+        byte[][] ids = playerIds.stream().distinct().map(UuidUtils::toBytes).toArray(byte[][]::new);
+        try (Connection connection = _dataSource.getConnection()) {
+            for (int offset = 0; offset < ids.length; offset += MAX_LOOKUP_BATCH) {
+                int count = Math.min(MAX_LOOKUP_BATCH, ids.length - offset);
+                String sql = String.format("SELECT * FROM %s_players WHERE PlayerId IN (%s);",
+                        _config.storageTablePrefix, "?" + ",?".repeat(count - 1));
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < count; i++) {
+                        statement.setBytes(i + 1, ids[offset + i]);
+                    }
+                    try (ResultSet result = statement.executeQuery()) {
+                        while (result.next()) {
+                            var row = new PlayerDatabaseData(
+                                    UuidUtils.fromBytes(result.getBytes("PlayerId")),
+                                    result.getString("Sound"),
+                                    EMentionDisplay.fromCode(result.getInt("Display")),
+                                    EMentionPreference.fromCode(result.getInt("Preference"))
+                            );
+                            data.put(row.PlayerId, row);
+                        }
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while finding player data batch...\n%s", ex.getMessage()));
+            return null;
+        }
+        return data;
+    }
+
+    /**
+     * Appends offline mentions to the inbox in a single JDBC batch and transaction,
+     * then drops the oldest mentions of each mentioned player beyond the configured capacity.
+     *
+     * @param mentions The mentions to add.
+     */
+    @Override
+    public void addMentions(Collection<OfflineMention> mentions) {
+        if (mentions.isEmpty())
+            return;
+
+        try (Connection connection = _dataSource.getConnection()) {
+            String insertSql = String.format("INSERT INTO %s_inbox (PlayerId, MentionerName, CreatedAt) VALUES (?, ?, ?);",
+                    _config.storageTablePrefix);
+            // MySQL can not select from the table it deletes from, unless the select is a derived table
+            String trimSql = String.format("DELETE FROM %1$s_inbox WHERE PlayerId=? AND Id <= " +
+                            "(SELECT Id FROM (SELECT Id FROM %1$s_inbox WHERE PlayerId=? ORDER BY Id DESC LIMIT 1 OFFSET %2$d) AS Cutoff);",
+                    _config.storageTablePrefix, Math.max(_config.offlineMentionCapacity, 0));
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(insertSql);
+                 PreparedStatement trim = connection.prepareStatement(trimSql)) {
+                Set<UUID> targetIds = new HashSet<>();
+                for (var mention : mentions) {
+                    insert.setBytes(1, UuidUtils.toBytes(mention.targetId()));
+                    insert.setString(2, mention.mentionerName());
+                    insert.setLong(3, mention.createdAt());
+                    insert.addBatch();
+                    targetIds.add(mention.targetId());
+                }
+                insert.executeBatch();
+
+                if (_config.offlineMentionCapacity > 0) {
+                    for (var targetId : targetIds) {
+                        byte[] id = UuidUtils.toBytes(targetId);
+                        trim.setBytes(1, id);
+                        trim.setBytes(2, id);
+                        trim.addBatch();
+                    }
+                    trim.executeBatch();
+                }
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while adding offline mentions...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Retrieves and removes the offline mentions of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's mentions, oldest first, or null if the lookup failed.
+     */
+    @Override
+    public @Nullable List<OfflineMention> takeMentions(UUID playerId) {
+        List<OfflineMention> mentions = new ArrayList<>();
+        byte[] id = UuidUtils.toBytes(playerId);
+        try (Connection connection = _dataSource.getConnection()) {
+            String sql = String.format("SELECT Id, MentionerName, CreatedAt FROM %s_inbox WHERE PlayerId=? ORDER BY Id;",
+                    _config.storageTablePrefix);
+            long lastId = -1;
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setBytes(1, id);
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        lastId = result.getLong("Id");
+                        mentions.add(new OfflineMention(playerId, result.getString("MentionerName"), result.getLong("CreatedAt")));
+                    }
+                }
+            }
+            if (lastId < 0)
+                return mentions;
+
+            // Only delete what has been read, another server might have added a mention in the meantime
+            sql = String.format("DELETE FROM %s_inbox WHERE PlayerId=? AND Id<=?;", _config.storageTablePrefix);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setBytes(1, id);
+                statement.setLong(2, lastId);
+                statement.executeUpdate();
+            }
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while taking offline mentions...\n%s", ex.getMessage()));
+            return null;
+        }
+        return mentions;
+    }
+
+    /**
+     * Removes the offline mentions created before the given time.
+     *
+     * @param createdBefore The cutoff time, in milliseconds since the epoch.
+     */
+    @Override
+    public void removeMentionsBefore(long createdBefore) {
+        try (Connection connection = _dataSource.getConnection()) {
+            String sql = String.format("DELETE FROM %s_inbox WHERE CreatedAt<?;", _config.storageTablePrefix);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, createdBefore);
+                statement.executeUpdate();
+            }
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while removing expired offline mentions...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Stores the names of several players in a single JDBC batch and transaction.
+     *
+     * @param names The names, keyed by the unique identifier of the player.
+     */
+    @Override
+    public void updateNames(Map<UUID, String> names) {
+        if (names.isEmpty())
+            return;
+
+        try (Connection connection = _dataSource.getConnection()) {
+            String sql = String.format("INSERT INTO %s_names (PlayerId, Name) VALUES (?, ?) ON DUPLICATE KEY UPDATE Name=VALUES(Name);",
+                    _config.storageTablePrefix);
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (var entry : names.entrySet()) {
+                    statement.setBytes(1, UuidUtils.toBytes(entry.getKey()));
+                    statement.setString(2, entry.getValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (Exception ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while updating player names...\n%s", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Retrieves the name of every player who has ever joined.
+     *
+     * @return The names, keyed by the unique identifier of the player, or null if the lookup failed.
+     */
+    @Override
+    public @Nullable Map<UUID, String> getNames() {
+        Map<UUID, String> names = new HashMap<>();
+        try (Connection connection = _dataSource.getConnection()) {
+            String sql = String.format("SELECT PlayerId, Name FROM %s_names;", _config.storageTablePrefix);
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(sql)) {
+                while (result.next()) {
+                    names.put(UuidUtils.fromBytes(result.getBytes("PlayerId")), result.getString("Name"));
+                }
+            }
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while getting player names...\n%s", ex.getMessage()));
+            return null;
+        }
+        return names;
+    }
+
+    /**
+     * A database write that can throw an SQLException.
+     */
+    @FunctionalInterface
+    private interface SqlWrite {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,244 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.KnownPlayer;
+import io.github.tavstaldev.openMentions.models.NameDirectory;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves the names of every player who has ever joined, so offline players can be mentioned.
+ * The names are loaded from the database in the background on first use into a compact NameDirectory.
+ * Players joining afterwards go into a small second directory, rebuilt on the first lookup after a change,
+ * which is merged into the large one in the background once it grows. Lookups check the small directory first, so
+ * renamed players resolve to their new name. New and changed names are written to the database in
+ * batches, using the flush interval of the player data.
+ */
+public class NameDirectoryManager {
+    /** Logger instance for logging messages related to NameDirectoryManager. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(NameDirectoryManager.class);
+
+    /** Number of recently seen names that triggers a merge into the main directory. */
+    private static final int MERGE_THRESHOLD = 1024;
+
+    /** The names loaded from the database, plus the merged recent names. */
+    private static volatile NameDirectory _directory = NameDirectory.EMPTY;
+    /** The names seen since the last merge. */
+    private static volatile NameDirectory _recentDirectory = NameDirectory.EMPTY;
+    /** Whether the recent directory is out of date. */
+    private static volatile boolean _recentDirty = false;
+    /** The names seen since the last merge, keyed by the player's unique identifier (UUID). */
+    private static final Map<UUID, String> _recentNames = new ConcurrentHashMap<>();
+    /** The names waiting to be written, keyed by the player's unique identifier (UUID). */
+    private static final Map<UUID, String> _pending = new ConcurrentHashMap<>();
+    /** Serializes the rebuilds of the main directory. */
+    private static final Object _lock = new Object();
+    /** Serializes the rebuilds of the recent directory, kept apart so lookups never wait for a merge. */
+    private static final Object _recentLock = new Object();
+    private static final AtomicBoolean _loadStarted = new AtomicBoolean(false);
+    private static volatile boolean _loaded = false;
+    private static final AtomicBoolean _merging = new AtomicBoolean(false);
+
+    private static BukkitTask _task;
+
+    /**
+     * Starts writing the new names periodically, using the configured flush interval.
+     */
+    public static void start() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+
+        long interval = OpenMentions.Config().storageFlushInterval * 20L;
+        if (interval > 0)
+            _task = Bukkit.getScheduler().runTaskTimerAsynchronously(OpenMentions.Instance, NameDirectoryManager::flush, interval, interval);
+    }
+
+    /**
+     * Stops the periodic flush and writes every pending name on the calling thread.
+     */
+    public static void stop() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+        flush();
+    }
+
+    /**
+     * Records the name of a player who joined. Does nothing if the name is already known.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param name The name of the player.
+     */
+    public static void addPlayer(UUID playerId, String name) {
+        ensureLoaded();
+        if (name.equals(_recentNames.get(playerId)))
+            return;
+        var directory = _directory;
+        int index = directory.find(name, 0, name.length());
+        if (!_recentNames.containsKey(playerId) && index >= 0 && directory.isPlayer(index, playerId) && directory.getName(index).equals(name))
+            return;
+
+        _recentNames.put(playerId, name);
+        _pending.put(playerId, name);
+        // Rebuilt by the next lookup, so joins never pay for it
+        _recentDirty = true;
+        if (_recentNames.size() >= MERGE_THRESHOLD)
+            scheduleMerge();
+    }
+
+    /**
+     * Records the name of every online player.
+     * Used when the plugin is (re)enabled, since players already online did not trigger a join.
+     */
+    public static void addPlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            addPlayer(player.getUniqueId(), player.getName());
+        }
+    }
+
+    /**
+     * Resolves a name to a known player, ignoring case. Safe to call from any thread, and only allocates on a match.
+     * Triggers the loading of the names on first use, until they are loaded only recently seen players are found.
+     *
+     * @param text The text holding the name.
+     * @param start The index of the first character of the name.
+     * @param end The index after the last character of the name.
+     * @return The player, or null if no player is known by that name.
+     */
+    public static KnownPlayer resolve(CharSequence text, int start, int end) {
+        ensureLoaded();
+        var recent = getRecentDirectory();
+        int index = recent.find(text, start, end);
+        if (index >= 0)
+            return new KnownPlayer(recent.getPlayerId(index), recent.getName(index));
+
+        var directory = _directory;
+        index = directory.find(text, start, end);
+        if (index < 0)
+            return null;
+        UUID playerId = directory.getPlayerId(index);
+        // The player has been renamed since, the recent directory would have found them otherwise
+        if (_recentNames.containsKey(playerId))
+            return null;
+        return new KnownPlayer(playerId, directory.getName(index));
+    }
+
+    /**
+     * Retrieves the recent directory, rebuilding it first if it is out of date.
+     *
+     * @return The recent directory.
+     */
+    private static NameDirectory getRecentDirectory() {
+        if (_recentDirty) {
+            synchronized (_recentLock) {
+                if (_recentDirty) {
+                    _recentDirty = false;
+                    _recentDirectory = NameDirectory.build(_recentNames);
+                }
+            }
+        }
+        return _recentDirectory;
+    }
+
+    /**
+     * Writes the pending names in a single batch. Blocks on the database.
+     */
+    public static void flush() {
+        if (_pending.isEmpty())
+            return;
+
+        Map<UUID, String> batch = new HashMap<>();
+        for (var entry : _pending.entrySet()) {
+            // Only take the name if it has not been replaced in the meantime
+            if (_pending.remove(entry.getKey(), entry.getValue()))
+                batch.put(entry.getKey(), entry.getValue());
+        }
+        if (!batch.isEmpty())
+            OpenMentions.Database.updateNames(batch);
+    }
+
+    /**
+     * Starts loading the names from the database in the background, unless it has already been started.
+     */
+    private static void ensureLoaded() {
+        if (_loadStarted.get() || !_loadStarted.compareAndSet(false, true))
+            return;
+        Bukkit.getScheduler().runTaskAsynchronously(OpenMentions.Instance, NameDirectoryManager::load);
+    }
+
+    /**
+     * Loads the names from the database into the main directory. Blocks on the database.
+     */
+    private static void load() {
+        var names = OpenMentions.Database.getNames();
+        if (names == null) {
+            // Already logged, try again on the next lookup
+            _loadStarted.set(false);
+            return;
+        }
+
+        synchronized (_lock) {
+            _directory = NameDirectory.build(names);
+            _loaded = true;
+        }
+        _logger.Debug(String.format("Loaded the names of %d known players.", _directory.size()));
+        if (_recentNames.size() >= MERGE_THRESHOLD)
+            scheduleMerge();
+    }
+
+    /**
+     * Starts merging the recent names into the main directory in the background.
+     */
+    private static void scheduleMerge() {
+        if (!_loaded || !OpenMentions.Instance.isEnabled() || !_merging.compareAndSet(false, true))
+            return;
+
+        Bukkit.getScheduler().runTaskAsynchronously(OpenMentions.Instance, () -> {
+            try {
+                merge();
+            } finally {
+                _merging.set(false);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the main directory with the recent names, then drops them from the recent directory.
+     */
+    private static void merge() {
+        synchronized (_lock) {
+            Map<UUID, String> merged = new HashMap<>(_recentNames);
+            Set<String> takenNames = new HashSet<>();
+            for (var name : merged.values()) {
+                takenNames.add(name.toLowerCase(Locale.ROOT));
+            }
+
+            Map<UUID, String> names = new HashMap<>(_directory.size() + merged.size());
+            _directory.copyTo(names);
+            // A name given up by a renamed player might have been taken by someone else since
+            names.entrySet().removeIf(entry -> takenNames.contains(entry.getValue().toLowerCase(Locale.ROOT)) && !merged.containsKey(entry.getKey()));
+            names.putAll(merged);
+            _directory = NameDirectory.build(names);
+
+            for (var entry : merged.entrySet()) {
+                _recentNames.remove(entry.getKey(), entry.getValue());
+            }
+            _recentDirty = true;
+            _logger.Debug(String.format("Merged %d recent names, %d players are known.", merged.size(), _directory.size()));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.NameAutomaton;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a multi-pattern matcher over the names of every online player.
+ * Names are registered on join and removed on quit, the automaton itself is
+ * rebuilt lazily on the first lookup after a change, so a join storm only
+ * causes a single rebuild.
+ * Also holds the mention symbol table, built once and rebuilt on reload.
+ */
+public class NameMatcherManager {
+    /** The names of the online players, keyed by the player's unique identifier (UUID). */
+    private static final Map<UUID, String> _names = new ConcurrentHashMap<>();
+    /** The current automaton, replaced as a whole after every rebuild. */
+    private static volatile NameAutomaton _automaton = NameAutomaton.EMPTY;
+    /** Whether the automaton is out of date. */
+    private static volatile boolean _dirty = false;
+    /** The configured mention symbols, or null if not built yet. */
+    private static volatile String[] _symbols;
+
+    /**
+     * Registers the name of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param name The name of the player.
+     */
+    public static void addPlayer(UUID playerId, String name) {
+        _names.put(playerId, name);
+        _dirty = true;
+    }
+
+    /**
+     * Registers the name of every online player.
+     * Used when the plugin is (re)enabled, since players already online did not trigger a join.
+     */
+    public static void addPlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            addPlayer(player.getUniqueId(), player.getName());
+        }
+    }
+
+    /**
+     * Removes the name of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public static void removePlayer(UUID playerId) {
+        if (_names.remove(playerId) != null)
+            _dirty = true;
+    }
+
+    /**
+     * Retrieves the configured mention symbols, ordered from the longest to the shortest.
+     *
+     * @return The mention symbols.
+     */
+    public static String[] getSymbols() {
+        String[] symbols = _symbols;
+        if (symbols == null) {
+            symbols = buildSymbols();
+            _symbols = symbols;
+        }
+        return symbols;
+    }
+
+    /**
+     * Rebuilds the mention symbol table.
+     * Should be called after the configuration has been reloaded.
+     */
+    public static void reloadSymbols() {
+        _symbols = buildSymbols();
+    }
+
+    /**
+     * Builds the mention symbol table from the configuration.
+     * Longer symbols come first so that "@@" wins over "@".
+     *
+     * @return The mention symbols.
+     */
+    private static String[] buildSymbols() {
+        var symbols = OpenMentions.Config().symbols;
+        if (symbols == null)
+            return new String[0];
+        return symbols.stream()
+                .filter(symbol -> symbol != null && !symbol.isEmpty())
+                .distinct()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Retrieves the automaton holding the names of the online players.
+     * Rebuilds it first if any player joined or left since the last call.
+     *
+     * @return The up-to-date automaton.
+     */
+    public static NameAutomaton getAutomaton() {
+        if (_dirty) {
+            synchronized (NameMatcherManager.class) {
+                if (_dirty) {
+                    _dirty = false;
+                    Map<String, UUID> names = new HashMap<>();
+                    for (var entry : _names.entrySet()) {
+                        names.put(entry.getValue(), entry.getKey());
+                    }
+                    _automaton = NameAutomaton.build(names);
+                }
+            }
+        }
+        return _automaton;
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.minecorelib.utils.ChatUtils;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.NotificationTemplate;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the mention notification messages of each locale in their colour translated form,
+ * so they are parsed once per locale instead of once per mention.
+ * The cache is filled the first time a locale is used, and cleared when the localizations are reloaded.
+ */
+public class NotificationTemplateManager {
+    /** Logger instance for logging messages related to NotificationTemplateManager. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(NotificationTemplateManager.class);
+
+    /** Key of the templates used when player locales are disabled. */
+    private static final String DEFAULT_LOCALE_KEY = "";
+
+    /**
+     * The notification messages of a locale.
+     *
+     * @param chat The chat message.
+     * @param actionBar The action bar message.
+     */
+    private record Templates(NotificationTemplate chat, NotificationTemplate actionBar) {}
+
+    /** The templates of each locale, keyed by the ISO 639-2 language code. */
+    private static final Map<String, Templates> _templates = new ConcurrentHashMap<>();
+
+    /**
+     * Retrieves the chat message template in the player's locale.
+     *
+     * @param player The player to notify.
+     * @return The chat message template.
+     */
+    public static NotificationTemplate getChatTemplate(Player player) {
+        return getTemplates(player).chat();
+    }
+
+    /**
+     * Retrieves the action bar message template in the player's locale.
+     *
+     * @param player The player to notify.
+     * @return The action bar message template.
+     */
+    public static NotificationTemplate getActionBarTemplate(Player player) {
+        return getTemplates(player).actionBar();
+    }
+
+    /**
+     * Clears the cached templates. Should be called after the localizations or the configuration are reloaded.
+     */
+    public static void clear() {
+        _templates.clear();
+    }
+
+    /**
+     * Retrieves the templates of the player's locale, building them if they are not cached yet.
+     *
+     * @param player The player to notify.
+     * @return The templates.
+     */
+    private static Templates getTemplates(Player player) {
+        String localeKey = getLocaleKey(player);
+        var templates = _templates.get(localeKey);
+        if (templates != null)
+            return templates;
+
+        // The translator resolves the locale of the player the same way, including the fallback to the default locale
+        var translator = OpenMentions.Translator();
+        String prefix = OpenMentions.Config().getString("prefix");
+        String chat = translator.Localize(player, "General.ChatMessage");
+        String actionBar = translator.Localize(player, "General.ActionBarMessage");
+        templates = new Templates(
+                build(prefix == null ? chat : chat.replace("%prefix%", prefix)),
+                build(actionBar)
+        );
+        _templates.put(localeKey, templates);
+        _logger.Debug(String.format("Built the notification templates of the '%s' locale.", localeKey));
+        return templates;
+    }
+
+    /**
+     * Colour translates a notification message and splits it around the placeholder.
+     *
+     * @param message The message, possibly containing the "%player%" placeholder.
+     * @return The template.
+     */
+    private static NotificationTemplate build(String message) {
+        if (message == null)
+            message = ""; // Already logged by the translator
+        return NotificationTemplate.of(ChatUtils.translateColors(message, true));
+    }
+
+    /**
+     * Determines the key of the locale the player's messages are sent in.
+     *
+     * @param player The player to notify.
+     * @return The locale key.
+     */
+    private static String getLocaleKey(Player player) {
+        if (!OpenMentions.Config().getBoolean("usePlayerLocale"))
+            return DEFAULT_LOCALE_KEY;
+        try {
+            return player.locale().getISO3Language();
+        } catch (Exception ex) {
+            return DEFAULT_LOCALE_KEY;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.PlayerDatabaseData;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind queue for player preference changes.
+ * Changes are applied to the PlayerCacheManager right away and only the latest snapshot of each
+ * player is kept here, so several changes in a row collapse into a single write. The queue is
+ * written to the database in one batch on a timer, when the player quits, and on shutdown.
+ * In sparse storage mode only settings that differ from the defaults are kept in the database.
+ */
+public class PersistenceManager {
+    /** Logger instance for logging messages related to PersistenceManager. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(PersistenceManager.class);
+
+    /** The latest unsaved snapshot of each player, keyed by the player's unique identifier (UUID). */
+    private static final Map<UUID, PlayerDatabaseData> _pending = new ConcurrentHashMap<>();
+    /** Serializes the flushes, so an older snapshot is never written after a newer one. */
+    private static final Object _flushLock = new Object();
+
+    private static BukkitTask _task;
+
+    /**
+     * Starts flushing the queue periodically, using the configured interval.
+     */
+    public static void start() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+
+        long interval = OpenMentions.Config().storageFlushInterval * 20L;
+        if (interval > 0)
+            _task = Bukkit.getScheduler().runTaskTimerAsynchronously(OpenMentions.Instance, PersistenceManager::flush, interval, interval);
+    }
+
+    /**
+     * Stops the periodic flush and writes everything still pending on the calling thread.
+     */
+    public static void stop() {
+        if (_task != null) {
+            _task.cancel();
+            _task = null;
+        }
+        flush();
+    }
+
+    /**
+     * Queues the latest snapshot of a player for writing, replacing any snapshot still pending.
+     *
+     * @param data The player's data.
+     */
+    public static void markDirty(PlayerDatabaseData data) {
+        _pending.put(data.PlayerId, data);
+    }
+
+    /**
+     * Checks whether a player has changes that have not been written yet.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return True if the player has pending changes, false otherwise.
+     */
+    public static boolean isPending(UUID playerId) {
+        return _pending.containsKey(playerId);
+    }
+
+    /**
+     * Retrieves the pending snapshot of a player.
+     * Newer than the database row until it has been written, so loaders must prefer it.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The snapshot waiting to be written, or null if the player has no pending changes.
+     */
+    public static PlayerDatabaseData getPending(UUID playerId) {
+        return _pending.get(playerId);
+    }
+
+    /**
+     * Writes the pending snapshot of a player, if any, asynchronously.
+     * The snapshot stays queued until the write succeeds.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public static void flushPlayer(UUID playerId) {
+        if (!_pending.containsKey(playerId))
+            return;
+
+        Bukkit.getScheduler().runTaskAsynchronously(OpenMentions.Instance, () -> {
+            synchronized (_flushLock) {
+                PlayerDatabaseData data = _pending.get(playerId);
+                if (data != null && write(List.of(data)))
+                    _pending.remove(playerId, data);
+            }
+        });
+    }
+
+    /**
+     * Writes every pending snapshot in a single batch. Blocks on the database.
+     * Snapshots are only dequeued once the batch has been written, a failed batch is retried by the next flush.
+     */
+    public static void flush() {
+        if (_pending.isEmpty())
+            return;
+
+        synchronized (_flushLock) {
+            List<PlayerDatabaseData> batch = new ArrayList<>(_pending.values());
+            if (batch.isEmpty())
+                return;
+
+            _logger.Debug(String.format("Writing %d pending player data changes...", batch.size()));
+            if (!write(batch)) {
+                _logger.Warn(String.format("Failed to write %d player data changes, they will be retried.", batch.size()));
+                return;
+            }
+            for (var data : batch) {
+                // Keep the snapshot if it has been replaced in the meantime
+                _pending.remove(data.PlayerId, data);
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of snapshots. In sparse storage mode, players whose settings are back to the
+     * defaults have their row deleted instead. The caller must hold the flush lock.
+     *
+     * @param batch The snapshots to write.
+     * @return True if the whole batch was written, false otherwise.
+     */
+    private static boolean write(List<PlayerDatabaseData> batch) {
+        var config = OpenMentions.Config();
+        if (!config.storageSparse)
+            return OpenMentions.Database.updateDatas(batch);
+
+        List<PlayerDatabaseData> changed = new ArrayList<>(batch.size());
+        List<UUID> defaults = new ArrayList<>();
+        for (var data : batch) {
+            if (config.isDefaultData(data))
+                defaults.add(data.PlayerId);
+            else
+                changed.add(data);
+        }
+        // Both halves are attempted, writing a snapshot again on retry is harmless
+        boolean updated = OpenMentions.Database.updateDatas(changed);
+        boolean removed = OpenMentions.Database.removeDatas(defaults);
+        return updated && removed;
+    }
+}
@@ -1,21 +1,27 @@
 package io.github.tavstaldev.openMentions.managers;
 
+import io.github.tavstaldev.openMentions.models.CooldownTable;
 import io.github.tavstaldev.openMentions.models.PlayerDatabaseData;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 /**
  * Manages the caching of player data.
  * This class provides methods to add, remove, and retrieve player data
  * stored in a cache for efficient access.
+ * The maps are written from the main thread and read from the async chat threads,
+ * so they are concurrent maps holding immutable values, and reads never block.
  */
 public class PlayerCacheManager {
     /** A map storing player data, keyed by the player's unique identifier (UUID). */
-    private static final Map<UUID, PlayerDatabaseData> _playerData = new HashMap<>();
-    private static final Map<UUID, LocalDateTime> _cooldown = new HashMap<>();
+    private static final Map<UUID, PlayerDatabaseData> _playerData = new ConcurrentHashMap<>();
+    /** A table storing the cooldown deadline of each player, keyed by the halves of the player's unique identifier (UUID). */
+    private static final CooldownTable _cooldown = new CooldownTable(64);
+    /** A map storing the resolved mention format of each player, read from the async chat threads. */
+    private static final Map<UUID, String> _mentionFormats = new ConcurrentHashMap<>();
 
     /**
      * Adds or updates the cached data for a player.
@@ -27,6 +33,26 @@ public class PlayerCacheManager {
         _playerData.put(playerId, playerData);
     }
 
+    /**
+     * Atomically replaces the cached data of a player with an updated snapshot.
+     * Does nothing if the player has no cached data.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param updater The function deriving the new snapshot from the current one.
+     * @return The new snapshot, or null if the player has no cached data.
+     */
+    public static PlayerDatabaseData updatePlayerData(UUID playerId, UnaryOperator<PlayerDatabaseData> updater) {
+        return _playerData.computeIfPresent(playerId, (id, data) -> updater.apply(data));
+    }
+
+    /**
+     * Resolves the sound of every cached player again.
+     * Should be called after the sound cache has been cleared.
+     */
+    public static void refreshSounds() {
+        _playerData.replaceAll((id, data) -> data.withResolvedSound());
+    }
+
     /**
      * Removes the cached data for a player.
      *
@@ -34,6 +60,7 @@ public class PlayerCacheManager {
      */
     public static void removePlayerData(UUID playerId) {
         _playerData.remove(playerId);
+        _mentionFormats.remove(playerId);
     }
 
     /**
@@ -47,13 +74,33 @@ public class PlayerCacheManager {
     }
 
     /**
-     * Sets a cooldown time for a specific player.
+     * Sets the resolved mention format of a player.
      *
      * @param playerId The unique identifier of the player.
-     * @param time The time until which the cooldown is active.
+     * @param format The formatted mention, with the player's name already applied.
      */
-    public static void setCooldown(UUID playerId, LocalDateTime time) {
-        _cooldown.put(playerId, time);
+    public static void setMentionFormat(UUID playerId, String format) {
+        _mentionFormats.put(playerId, format);
+    }
+
+    /**
+     * Retrieves the resolved mention format of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The formatted mention, or null if it has not been resolved yet.
+     */
+    public static String getMentionFormat(UUID playerId) {
+        return _mentionFormats.get(playerId);
+    }
+
+    /**
+     * Sets a cooldown for a specific player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param durationNanos The duration of the cooldown in nanoseconds.
+     */
+    public static void setCooldown(UUID playerId, long durationNanos) {
+        _cooldown.put(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), System.nanoTime() + durationNanos);
     }
 
     /**
@@ -63,10 +110,15 @@ public class PlayerCacheManager {
      * @return True if the player is on cooldown, false otherwise.
      */
     public static boolean isOnCooldown(UUID playerId) {
-        LocalDateTime cooldownTime = _cooldown.get(playerId);
-        if (cooldownTime == null) {
-            return false; // No cooldown set for this player
-        }
-        return LocalDateTime.now().isBefore(cooldownTime); // Check if current time is before the cooldown time
+        return _cooldown.isActive(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), System.nanoTime());
+    }
+
+    /**
+     * Removes every expired cooldown, keeping the cooldown table bounded on long uptimes.
+     *
+     * @return The number of removed cooldowns.
+     */
+    public static int sweepCooldowns() {
+        return _cooldown.sweep(System.nanoTime());
     }
-}
\ No newline at end of file
+}
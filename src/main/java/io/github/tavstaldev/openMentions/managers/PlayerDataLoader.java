@@ -0,0 +1,194 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.models.PlayerDatabaseData;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces player data lookups made at the same moment into multi-row queries.
+ * Callers queue their lookup, and whichever caller finds no load in progress drains the queue,
+ * loading everyone waiting with a single IN query and, outside sparse storage mode, inserting the missing
+ * defaults in a single batch.
+ * Lookups queued while a load runs are picked up by the next round, so a join storm turns into a
+ * few large queries instead of one query per player.
+ */
+public class PlayerDataLoader {
+    /** Logger instance for logging messages related to PlayerDataLoader. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(PlayerDataLoader.class);
+
+    /** Largest number of lookups handled by a single round. */
+    private static final int MAX_BATCH = 500;
+    /** How long a waiting caller sleeps before checking whether it should take over the loading. */
+    private static final long WAIT_MILLIS = 20;
+
+    private record Lookup(UUID playerId, CompletableFuture<PlayerDatabaseData> result) {}
+
+    /** Lookups waiting to be loaded. */
+    private static final Queue<Lookup> _queue = new ConcurrentLinkedQueue<>();
+    /** Whether a caller is currently draining the queue. */
+    private static final AtomicBoolean _loading = new AtomicBoolean(false);
+
+    /**
+     * Loads the data of a player from the database, falling back to the default values if it does not exist.
+     * Changes of the player still waiting to be written are returned instead of the database row,
+     * so a quick rejoin does not revert them.
+     * Blocks on the database, must not be called on the main thread.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's data.
+     */
+    public static PlayerDatabaseData load(UUID playerId) {
+        // Snapshots are only dequeued after their write, so without one the database is up to date
+        var pending = PersistenceManager.getPending(playerId);
+        if (pending != null)
+            return pending;
+
+        var lookup = new Lookup(playerId, new CompletableFuture<>());
+        _queue.add(lookup);
+        return await(lookup);
+    }
+
+    /**
+     * Loads the data of every online player missing from the cache, in the background.
+     * They get the default values until their data arrives, which never replaces a change made in the meantime.
+     * Used when the plugin is (re)enabled, since players already online did not trigger a pre-login.
+     */
+    public static void loadOnlinePlayers() {
+        List<Lookup> lookups = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            var playerId = player.getUniqueId();
+            if (PlayerCacheManager.getPlayerData(playerId) != null)
+                continue;
+            PlayerCacheManager.addPlayerData(playerId, OpenMentions.Config().createDefaultData(playerId));
+            lookups.add(new Lookup(playerId, new CompletableFuture<>()));
+        }
+        if (lookups.isEmpty())
+            return;
+
+        Bukkit.getScheduler().runTaskAsynchronously(OpenMentions.Instance, () -> {
+            // Queue everyone first, so they are loaded together
+            _queue.addAll(lookups);
+            Map<UUID, PlayerDatabaseData> loaded = new HashMap<>();
+            for (var lookup : lookups) {
+                loaded.put(lookup.playerId(), await(lookup));
+            }
+            Bukkit.getScheduler().runTask(OpenMentions.Instance, () -> {
+                for (var entry : loaded.entrySet()) {
+                    var playerId = entry.getKey();
+                    PlayerCacheManager.updatePlayerData(playerId, current -> PersistenceManager.isPending(playerId) ? current : entry.getValue());
+                }
+            });
+        });
+    }
+
+    /**
+     * Waits for a queued lookup, draining the queue if no other caller is.
+     *
+     * @param lookup The queued lookup.
+     * @return The player's data, or the default values if the load failed.
+     */
+    private static PlayerDatabaseData await(Lookup lookup) {
+        while (!lookup.result().isDone()) {
+            if (_loading.compareAndSet(false, true)) {
+                try {
+                    drain();
+                } finally {
+                    _loading.set(false);
+                }
+                continue;
+            }
+
+            try {
+                lookup.result().get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
+                // The current load might have missed our lookup, check whether we should take over
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ex) {
+                break;
+            }
+        }
+
+        var data = lookup.result().getNow(null);
+        return data != null ? data : OpenMentions.Config().createDefaultData(lookup.playerId());
+    }
+
+    /**
+     * Loads every queued lookup, one round of at most {@link #MAX_BATCH} lookups at a time.
+     */
+    private static void drain() {
+        List<Lookup> batch = new ArrayList<>();
+        while (true) {
+            batch.clear();
+            Lookup lookup;
+            while (batch.size() < MAX_BATCH && (lookup = _queue.poll()) != null) {
+                batch.add(lookup);
+            }
+            if (batch.isEmpty())
+                return;
+
+            try {
+                loadBatch(batch);
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while loading player data batch...\n%s", ex.getMessage()));
+            } finally {
+                // Never leave a caller waiting, fall back to the defaults if the load failed
+                for (var entry : batch) {
+                    entry.result().complete(OpenMentions.Config().createDefaultData(entry.playerId()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the data of a batch of players and inserts the defaults of those without data,
+     * unless sparse storage is enabled.
+     *
+     * @param batch The lookups to load.
+     */
+    private static void loadBatch(List<Lookup> batch) {
+        Map<UUID, PlayerDatabaseData> playerIds = new HashMap<>();
+        for (var lookup : batch) {
+            playerIds.put(lookup.playerId(), null);
+        }
+
+        var found = OpenMentions.Database.getDatas(playerIds.keySet());
+        if (found == null)
+            return; // Already logged, do not insert defaults over rows we could not read
+
+        List<PlayerDatabaseData> missing = new ArrayList<>();
+        for (var playerId : playerIds.keySet()) {
+            var data = found.get(playerId);
+            if (data == null) {
+                data = OpenMentions.Config().createDefaultData(playerId);
+                missing.add(data);
+            }
+            playerIds.put(playerId, data);
+        }
+        // In sparse storage mode a missing row already means the defaults
+        if (!OpenMentions.Config().storageSparse)
+            OpenMentions.Database.addDatas(missing);
+
+        if (batch.size() > 1)
+            _logger.Debug(String.format("Loaded the data of %d players in one batch, %d were new.", playerIds.size(), missing.size()));
+        for (var lookup : batch) {
+            lookup.result().complete(playerIds.get(lookup.playerId()));
+        }
+    }
+}
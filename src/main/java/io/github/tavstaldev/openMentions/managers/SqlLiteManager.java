@@ -6,20 +6,32 @@ import io.github.tavstaldev.openMentions.OpenMentions;
 import io.github.tavstaldev.openMentions.models.EMentionDisplay;
 import io.github.tavstaldev.openMentions.models.EMentionPreference;
 import io.github.tavstaldev.openMentions.models.IDatabase;
+import io.github.tavstaldev.openMentions.models.OfflineMention;
 import io.github.tavstaldev.openMentions.models.PlayerDatabaseData;
+import io.github.tavstaldev.openMentions.utils.UuidUtils;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Manages SQLite database operations for the OpenMentions plugin.
  * Implements the IDatabase interface to handle player data storage and retrieval.
+ * Keeps a single long-lived connection in WAL mode and caches one prepared statement per operation.
+ * SQLite serializes writers anyway, so every operation runs under one lock.
  */
 public class SqlLiteManager implements IDatabase {
     private OMConfig _config;
@@ -27,55 +39,340 @@ public class SqlLiteManager implements IDatabase {
     /** Logger instance for logging messages related to SqlLiteManager. */
     private static final PluginLogger _logger = OpenMentions.Logger().WithModule(SqlLiteManager.class);
 
+    /** Largest number of players looked up by a single query. */
+    private static final int MAX_LOOKUP_BATCH = 256;
+    /** The schema version this build of the plugin reads and writes. */
+    private static final int SCHEMA_VERSION = 2;
+    /** Size of the memory-mapped I/O region, in bytes. */
+    private static final long MMAP_SIZE = 64L * 1024 * 1024;
+
+    /** Guards the connection and the prepared statements, which are not safe to share between threads. */
+    private final Object _lock = new Object();
+    private Connection _connection;
+    /** Prepared statements of the current connection, keyed by their SQL. */
+    private final Map<String, PreparedStatement> _statements = new HashMap<>();
+
+    // SQL of each operation, built once when the manager is loaded.
+    private String _table;
+    private String _schemaTable;
+    private String _insertSql;
+    private String _insertIgnoreSql;
+    private String _updateSoundSql;
+    private String _updateDisplaySql;
+    private String _updatePreferenceSql;
+    private String _updateDataSql;
+    private String _deleteSql;
+    private String _selectAllSql;
+    private String _selectSql;
+    private String _selectManySqlPrefix;
+    private String _inboxTable;
+    private String _insertMentionSql;
+    private String _trimMentionsSql;
+    private String _selectMentionsSql;
+    private String _deleteMentionsSql;
+    private String _deleteExpiredMentionsSql;
+    private String _namesTable;
+    private String _upsertNameSql;
+    private String _selectNamesSql;
+
     /**
-     * Loads the database manager. No operation is performed for SQLite.
+     * Loads the database manager and builds the SQL of each operation.
      */
     @Override
     public void load() {
         _config = OpenMentions.Config();
+        String table = _config.storageTablePrefix + "_players";
+        _table = table;
+        _schemaTable = _config.storageTablePrefix + "_schema";
+        _insertSql = "INSERT INTO " + table + " (PlayerId, Sound, Display, Preference) VALUES (?, ?, ?, ?);";
+        _insertIgnoreSql = "INSERT OR IGNORE INTO " + table + " (PlayerId, Sound, Display, Preference) VALUES (?, ?, ?, ?);";
+        _updateSoundSql = "UPDATE " + table + " SET Sound=? WHERE PlayerId=?;";
+        _updateDisplaySql = "UPDATE " + table + " SET Display=? WHERE PlayerId=?;";
+        _updatePreferenceSql = "UPDATE " + table + " SET Preference=? WHERE PlayerId=?;";
+        _updateDataSql = "INSERT INTO " + table + " (PlayerId, Sound, Display, Preference) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT(PlayerId) DO UPDATE SET Sound=excluded.Sound, Display=excluded.Display, Preference=excluded.Preference;";
+        _deleteSql = "DELETE FROM " + table + " WHERE PlayerId=?;";
+        _selectAllSql = "SELECT * FROM " + table + ";";
+        _selectSql = "SELECT * FROM " + table + " WHERE PlayerId=? LIMIT 1;";
+        _selectManySqlPrefix = "SELECT * FROM " + table + " WHERE PlayerId IN (";
+
+        String inbox = _config.storageTablePrefix + "_inbox";
+        _inboxTable = inbox;
+        _insertMentionSql = "INSERT INTO " + inbox + " (PlayerId, MentionerName, CreatedAt) VALUES (?, ?, ?);";
+        // Drops everything older than the newest mentions the player may keep
+        _trimMentionsSql = "DELETE FROM " + inbox + " WHERE PlayerId=? AND Id <= " +
+                "(SELECT Id FROM " + inbox + " WHERE PlayerId=? ORDER BY Id DESC LIMIT 1 OFFSET ?);";
+        _selectMentionsSql = "SELECT Id, MentionerName, CreatedAt FROM " + inbox + " WHERE PlayerId=? ORDER BY Id;";
+        _deleteMentionsSql = "DELETE FROM " + inbox + " WHERE PlayerId=? AND Id<=?;";
+        _deleteExpiredMentionsSql = "DELETE FROM " + inbox + " WHERE CreatedAt<?;";
+
+        String names = _config.storageTablePrefix + "_names";
+        _namesTable = names;
+        _upsertNameSql = "INSERT INTO " + names + " (PlayerId, Name) VALUES (?, ?) " +
+                "ON CONFLICT(PlayerId) DO UPDATE SET Name=excluded.Name;";
+        _selectNamesSql = "SELECT PlayerId, Name FROM " + names + ";";
     }
 
     /**
-     * Unloads the database manager. No operation is performed for SQLite.
+     * Unloads the database manager, closing the cached statements and the connection.
      */
     @Override
-    public void unload() {}
+    public void unload() {
+        synchronized (_lock) {
+            closeConnection();
+        }
+    }
 
     /**
-     * Creates a connection to the SQLite database.
+     * Retrieves the shared connection to the SQLite database, opening and tuning it if needed.
+     * The caller must hold the lock.
      *
-     * @return A Connection object to the SQLite database, or null if an error occurs.
+     * @return The Connection object to the SQLite database.
+     * @throws SQLException If the connection could not be opened.
      */
-    public Connection CreateConnection() {
+    private Connection getConnection() throws SQLException {
+        if (_connection != null && !_connection.isClosed())
+            return _connection;
+
+        closeConnection();
         try {
-            if (_config == null)
-                _config = OpenMentions.Config();
             Class.forName("org.sqlite.JDBC");
-            return DriverManager.getConnection(String.format("jdbc:sqlite:plugins/OpenMentions/%s.db", _config.storageFilename));
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while creating db connection...\n%s", ex.getMessage()));
-            return null;
+        } catch (ClassNotFoundException ex) {
+            throw new SQLException("SQLite JDBC driver not found.", ex);
+        }
+        Connection connection = DriverManager.getConnection(String.format("jdbc:sqlite:plugins/OpenMentions/%s.db", _config.storageFilename));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL;");
+            statement.execute("PRAGMA synchronous=NORMAL;");
+            statement.execute("PRAGMA mmap_size=" + MMAP_SIZE + ";");
+            statement.execute("PRAGMA temp_store=MEMORY;");
+            statement.execute("PRAGMA busy_timeout=5000;");
+        }
+        _connection = connection;
+        return connection;
+    }
+
+    /**
+     * Retrieves the cached prepared statement of an operation, preparing it on first use.
+     * The caller must hold the lock.
+     *
+     * @param sql The SQL of the operation.
+     * @return The prepared statement.
+     * @throws SQLException If the statement could not be prepared.
+     */
+    private PreparedStatement prepare(String sql) throws SQLException {
+        Connection connection = getConnection();
+        PreparedStatement statement = _statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql);
+            _statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Closes the cached statements. The caller must hold the lock.
+     */
+    private void closeStatements() {
+        for (var statement : _statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {}
+        }
+        _statements.clear();
+    }
+
+    /**
+     * Closes the cached statements and the connection. The caller must hold the lock.
+     */
+    private void closeConnection() {
+        closeStatements();
+
+        if (_connection != null) {
+            try {
+                _connection.close();
+            } catch (SQLException ex) {
+                _logger.Error(String.format("Unknown error happened while closing db connection...\n%s", ex.getMessage()));
+            }
+            _connection = null;
         }
     }
 
     /**
-     * Ensures the database schema is created. Creates the players table if it does not exist.
+     * Ensures the database schema is created and up-to-date.
+     * Creates the players table if it does not exist, otherwise migrates it to the current schema version.
      */
     @Override
     public void checkSchema() {
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("CREATE TABLE IF NOT EXISTS %s_players (" +
-                            "PlayerId VARCHAR(36) PRIMARY KEY, " +
-                            "Sound VARCHAR(200) NOT NULL, " +
-                            "Display VARCHAR(32) NOT NULL, " +
-                            "Preference VARCHAR(32) NOT NULL);",
-                    _config.storageTablePrefix
-            );
-            PreparedStatement statement = connection.prepareStatement(sql);
+        synchronized (_lock) {
+            try {
+                Connection connection = getConnection();
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + _schemaTable + " (" +
+                            "Id INTEGER PRIMARY KEY, " +
+                            "Version INTEGER NOT NULL);");
+                    // Offline mention inbox, only ever appended to and cleared
+                    statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + _inboxTable + " (" +
+                            "Id INTEGER PRIMARY KEY, " +
+                            "PlayerId BLOB NOT NULL, " +
+                            "MentionerName VARCHAR(16) NOT NULL, " +
+                            "CreatedAt INTEGER NOT NULL);");
+                    statement.executeUpdate("CREATE INDEX IF NOT EXISTS " + _inboxTable + "_player ON " + _inboxTable + " (PlayerId, Id);");
+                    statement.executeUpdate("CREATE INDEX IF NOT EXISTS " + _inboxTable + "_created ON " + _inboxTable + " (CreatedAt);");
+                    // Names of every player who has ever joined
+                    statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + _namesTable + " (" +
+                            "PlayerId BLOB NOT NULL PRIMARY KEY, " +
+                            "Name VARCHAR(16) NOT NULL) WITHOUT ROWID;");
+                }
+
+                int version = getSchemaVersion(connection);
+                if (version > SCHEMA_VERSION) {
+                    _logger.Warn(String.format("The database schema (version %d) is newer than this version of the plugin supports (version %d).", version, SCHEMA_VERSION));
+                    return;
+                }
+                if (version == 0) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.executeUpdate(createTableSql(_table));
+                    }
+                    setSchemaVersion(connection, SCHEMA_VERSION);
+                    return;
+                }
+
+                while (version < SCHEMA_VERSION) {
+                    _logger.Info(String.format("Migrating the database schema from version %d to version %d...", version, version + 1));
+                    migrate(connection, version);
+                    version++;
+                }
+                closeStatements();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while creating tables...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Builds the SQL creating a players table of the current schema version.
+     * UUIDs are stored as 16 byte blobs and enums as their codes, and the table is clustered on the UUID.
+     *
+     * @param table The name of the table.
+     * @return The SQL creating the table.
+     */
+    private static String createTableSql(String table) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "PlayerId BLOB NOT NULL PRIMARY KEY, " +
+                "Sound VARCHAR(200) NOT NULL, " +
+                "Display INTEGER NOT NULL, " +
+                "Preference INTEGER NOT NULL) WITHOUT ROWID;";
+    }
+
+    /**
+     * Reads the schema version of the database. Databases created before the version table existed
+     * are recognised by the type of their PlayerId column.
+     *
+     * @param connection The connection to use.
+     * @return The schema version, or 0 if the players table does not exist yet.
+     * @throws SQLException If the version could not be read.
+     */
+    private int getSchemaVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT Version FROM " + _schemaTable + " WHERE Id=1;")) {
+            if (result.next())
+                return result.getInt("Version");
+        }
+
+        String playerIdType = null;
+        try (ResultSet result = connection.getMetaData().getColumns(null, null, _table, "PlayerId")) {
+            if (result.next())
+                playerIdType = result.getString("TYPE_NAME");
+        }
+        if (playerIdType == null)
+            return 0;
+        // The first schema stored the UUIDs as text
+        int version = playerIdType.toUpperCase(Locale.ROOT).contains("CHAR") ? 1 : SCHEMA_VERSION;
+        setSchemaVersion(connection, version);
+        return version;
+    }
+
+    /**
+     * Stores the schema version of the database.
+     *
+     * @param connection The connection to use.
+     * @param version The schema version.
+     * @throws SQLException If the version could not be stored.
+     */
+    private void setSchemaVersion(Connection connection, int version) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT OR REPLACE INTO " + _schemaTable + " (Id, Version) VALUES (1, ?);")) {
+            statement.setInt(1, version);
             statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Migrates the database from the given schema version to the next one, in a single transaction.
+     *
+     * @param connection The connection to use.
+     * @param version The current schema version.
+     * @throws SQLException If the migration failed, in which case it is rolled back.
+     */
+    private void migrate(Connection connection, int version) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            switch (version) {
+                case 1 -> migrateToBinary(connection);
+                default -> throw new SQLException("No migration from schema version " + version);
+            }
+            setSchemaVersion(connection, version + 1);
+            connection.commit();
         } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while creating tables...\n%s", ex.getMessage()));
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Schema version 2: moves the UUIDs from text to 16 byte blobs and the enums from their names to their codes.
+     * Rows that can not be converted are skipped.
+     *
+     * @param connection The connection to use, inside a transaction.
+     * @throws SQLException If the migration failed.
+     */
+    private void migrateToBinary(Connection connection) throws SQLException {
+        String newTable = _table + "_migration";
+        int copied = 0, skipped = 0;
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE IF EXISTS " + newTable + ";");
+            statement.executeUpdate(createTableSql(newTable));
+        }
+
+        try (Statement select = connection.createStatement();
+             ResultSet result = select.executeQuery("SELECT PlayerId, Sound, Display, Preference FROM " + _table + ";");
+             PreparedStatement insert = connection.prepareStatement("INSERT OR IGNORE INTO " + newTable + " (PlayerId, Sound, Display, Preference) VALUES (?, ?, ?, ?);")) {
+            while (result.next()) {
+                try {
+                    insert.setBytes(1, UuidUtils.toBytes(UUID.fromString(result.getString("PlayerId"))));
+                    insert.setString(2, result.getString("Sound"));
+                    insert.setInt(3, EMentionDisplay.valueOf(result.getString("Display")).getCode());
+                    insert.setInt(4, EMentionPreference.valueOf(result.getString("Preference")).getCode());
+                } catch (IllegalArgumentException | NullPointerException ex) {
+                    skipped++;
+                    continue;
+                }
+                insert.addBatch();
+                if (++copied % 1000 == 0)
+                    insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE " + _table + ";");
+            statement.executeUpdate("ALTER TABLE " + newTable + " RENAME TO " + _table + ";");
         }
+        _logger.Info(String.format("Migrated %d player rows to the binary schema.", copied));
+        if (skipped > 0)
+            _logger.Warn(String.format("Skipped %d player rows that could not be converted.", skipped));
     }
 
     /**
@@ -88,19 +385,56 @@ public class SqlLiteManager implements IDatabase {
      */
     @Override
     public void addData(UUID playerId, String soundKey, EMentionDisplay display, EMentionPreference preference) {
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("INSERT INTO %s_players (PlayerId, Sound, Display, Preference) " +
-                            "VALUES (?, ?, ?, ?);",
-                    _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, playerId.toString());
+        synchronized (_lock) {
+            try {
+                PreparedStatement statement = prepare(_insertSql);
+                statement.setBytes(1, UuidUtils.toBytes(playerId));
                 statement.setString(2, soundKey);
-                statement.setString(3, display.name());
-                statement.setString(4, preference.name());
+                statement.setInt(3, display.getCode());
+                statement.setInt(4, preference.getCode());
                 statement.executeUpdate();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Adds the data of several players in a single JDBC batch and transaction.
+     * Players that already have a row are left untouched.
+     *
+     * @param datas The data to add, one entry per player.
+     */
+    @Override
+    public void addDatas(Collection<PlayerDatabaseData> datas) {
+        if (datas.isEmpty())
+            return;
+
+        synchronized (_lock) {
+            try {
+                Connection connection = getConnection();
+                PreparedStatement statement = prepare(_insertIgnoreSql);
+                connection.setAutoCommit(false);
+                try {
+                    for (var data : datas) {
+                        statement.setBytes(1, UuidUtils.toBytes(data.PlayerId));
+                        statement.setString(2, data.SoundName);
+                        statement.setInt(3, data.Display.getCode());
+                        statement.setInt(4, data.Preference.getCode());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    connection.commit();
+                } catch (Exception ex) {
+                    statement.clearBatch();
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while adding player data batch...\n%s", ex.getMessage()));
             }
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while adding player data...\n%s", ex.getMessage()));
         }
     }
 
@@ -112,16 +446,15 @@ public class SqlLiteManager implements IDatabase {
      */
     @Override
     public void updateSound(UUID playerId, String soundKey) {
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("UPDATE %s_players SET Sound=? WHERE PlayerId=?;",
-                    _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        synchronized (_lock) {
+            try {
+                PreparedStatement statement = prepare(_updateSoundSql);
                 statement.setString(1, soundKey);
-                statement.setString(2, playerId.toString());
+                statement.setBytes(2, UuidUtils.toBytes(playerId));
                 statement.executeUpdate();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
             }
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
         }
     }
 
@@ -133,16 +466,15 @@ public class SqlLiteManager implements IDatabase {
      */
     @Override
     public void updateDisplay(UUID playerId, EMentionDisplay display) {
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("UPDATE %s_players SET Display=? WHERE PlayerId=?;",
-                    _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, display.name());
-                statement.setString(2, playerId.toString());
+        synchronized (_lock) {
+            try {
+                PreparedStatement statement = prepare(_updateDisplaySql);
+                statement.setInt(1, display.getCode());
+                statement.setBytes(2, UuidUtils.toBytes(playerId));
                 statement.executeUpdate();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
             }
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
         }
     }
 
@@ -154,21 +486,20 @@ public class SqlLiteManager implements IDatabase {
      */
     @Override
     public void updatePreference(UUID playerId, EMentionPreference preference) {
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("UPDATE %s_players SET Preference=? WHERE PlayerId=?;",
-                    _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, preference.name());
-                statement.setString(2, playerId.toString());
+        synchronized (_lock) {
+            try {
+                PreparedStatement statement = prepare(_updatePreferenceSql);
+                statement.setInt(1, preference.getCode());
+                statement.setBytes(2, UuidUtils.toBytes(playerId));
                 statement.executeUpdate();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
             }
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
         }
     }
 
     /**
-     * Updates all data for a specific player in the database.
+     * Updates all data for a specific player in the database, creating the row if it is missing.
      *
      * @param playerId   The UUID of the player.
      * @param soundKey   The new sound key to associate with the player.
@@ -177,19 +508,59 @@ public class SqlLiteManager implements IDatabase {
      */
     @Override
     public void updateData(UUID playerId, String soundKey, EMentionDisplay display, EMentionPreference preference) {
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("UPDATE %s_players SET Sound=?, Display=?, Preference=? WHERE PlayerId=?;",
-                    _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, soundKey);
-                statement.setString(2, display.name());
-                statement.setString(3, preference.name());
-                statement.setString(4, playerId.toString());
+        synchronized (_lock) {
+            try {
+                PreparedStatement statement = prepare(_updateDataSql);
+                statement.setBytes(1, UuidUtils.toBytes(playerId));
+                statement.setString(2, soundKey);
+                statement.setInt(3, display.getCode());
+                statement.setInt(4, preference.getCode());
                 statement.executeUpdate();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Updates all data for several players in a single JDBC batch and transaction, creating missing rows.
+     *
+     * @param datas The data to write, one entry per player.
+     * @return True if the batch was written, false if it failed.
+     */
+    @Override
+    public boolean updateDatas(Collection<PlayerDatabaseData> datas) {
+        if (datas.isEmpty())
+            return true;
+
+        synchronized (_lock) {
+            try {
+                Connection connection = getConnection();
+                PreparedStatement statement = prepare(_updateDataSql);
+                connection.setAutoCommit(false);
+                try {
+                    for (var data : datas) {
+                        statement.setBytes(1, UuidUtils.toBytes(data.PlayerId));
+                        statement.setString(2, data.SoundName);
+                        statement.setInt(3, data.Display.getCode());
+                        statement.setInt(4, data.Preference.getCode());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    connection.commit();
+                } catch (Exception ex) {
+                    statement.clearBatch();
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while updating player data batch...\n%s", ex.getMessage()));
+                return false;
             }
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while updating player data...\n%s", ex.getMessage()));
         }
+        return true;
     }
 
     /**
@@ -199,18 +570,55 @@ public class SqlLiteManager implements IDatabase {
      */
     @Override
     public void removeData(UUID playerId) {
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("DELETE FROM %s_players WHERE PlayerId=?;",
-                    _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, playerId.toString());
+        synchronized (_lock) {
+            try {
+                PreparedStatement statement = prepare(_deleteSql);
+                statement.setBytes(1, UuidUtils.toBytes(playerId));
                 statement.executeUpdate();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened during the deletion of tables...\n%s", ex.getMessage()));
             }
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened during the deletion of tables...\n%s", ex.getMessage()));
         }
     }
 
+    /**
+     * Removes the data of several players in a single JDBC batch and transaction.
+     *
+     * @param playerIds The UUIDs of the players to remove.
+     * @return True if the batch was written, false if it failed.
+     */
+    @Override
+    public boolean removeDatas(Collection<UUID> playerIds) {
+        if (playerIds.isEmpty())
+            return true;
+
+        synchronized (_lock) {
+            try {
+                Connection connection = getConnection();
+                PreparedStatement statement = prepare(_deleteSql);
+                connection.setAutoCommit(false);
+                try {
+                    for (var playerId : playerIds) {
+                        statement.setBytes(1, UuidUtils.toBytes(playerId));
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    connection.commit();
+                } catch (Exception ex) {
+                    statement.clearBatch();
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while removing player data batch...\n%s", ex.getMessage()));
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Checks if a player's data exists in the database.
      *
@@ -230,24 +638,15 @@ public class SqlLiteManager implements IDatabase {
     @Override
     public List<PlayerDatabaseData> getDatas() {
         List<PlayerDatabaseData> data = new ArrayList<>();
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("SELECT * FROM %s_players;",
-                    _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                try (ResultSet result = statement.executeQuery()) {
-                    while (result.next()) {
-                        data.add(new PlayerDatabaseData(
-                                UUID.fromString(result.getString("PlayerId")),
-                                result.getString("Sound"),
-                                EMentionDisplay.valueOf(result.getString("Display")),
-                                EMentionPreference.valueOf(result.getString("Preference"))
-                        ));
-                    }
+        synchronized (_lock) {
+            try (ResultSet result = prepare(_selectAllSql).executeQuery()) {
+                while (result.next()) {
+                    data.add(readData(result));
                 }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while getting player data list...\n%s", ex.getMessage()));
+                return null;
             }
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while getting player data list...\n%s", ex.getMessage()));
-            return null;
         }
         return data;
     }
@@ -261,26 +660,254 @@ public class SqlLiteManager implements IDatabase {
     @Override
     public @Nullable PlayerDatabaseData getData(UUID playerId) {
         PlayerDatabaseData data = null;
-        try (Connection connection = CreateConnection()) {
-            String sql = String.format("SELECT * FROM %s_players WHERE PlayerId=? LIMIT 1;",
-                    _config.storageTablePrefix);
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, playerId.toString());
+        synchronized (_lock) {
+            try {
+                PreparedStatement statement = prepare(_selectSql);
+                statement.setBytes(1, UuidUtils.toBytes(playerId));
                 try (ResultSet result = statement.executeQuery()) {
                     if (result.next()) {
-                        data = new PlayerDatabaseData(
-                                UUID.fromString(result.getString("PlayerId")),
-                                result.getString("Sound"),
-                                EMentionDisplay.valueOf(result.getString("Display")),
-                                EMentionPreference.valueOf(result.getString("Preference"))
-                        );
+                        data = readData(result);
                     }
                 }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while finding player data...\n%s", ex.getMessage()));
+                return null;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Retrieves the data of several players, using one IN query per chunk of players.
+     * Chunk sizes are rounded up to a power of two and padded by repeating the last id,
+     * so only a handful of distinct statements are ever prepared.
+     *
+     * @param playerIds The unique identifiers of the players.
+     * @return The data found, keyed by the player's unique identifier, or null if the lookup failed.
+     */
+    @Override
+    public @Nullable Map<UUID, PlayerDatabaseData> getDatas(Collection<UUID> playerIds) {
+        Map<UUID, PlayerDatabaseData> data = new HashMap<>();
+        if (playerIds.isEmpty())
+            return data;
+
+        byte[][] ids = playerIds.stream().distinct().map(UuidUtils::toBytes).toArray(byte[][]::new);
+        synchronized (_lock) {
+            try {
+                for (int offset = 0; offset < ids.length; offset += MAX_LOOKUP_BATCH) {
+                    int count = Math.min(MAX_LOOKUP_BATCH, ids.length - offset);
+                    int size = Integer.highestOneBit(count);
+                    if (size < count)
+                        size <<= 1;
+
+                    PreparedStatement statement = prepare(_selectManySqlPrefix + "?" + ",?".repeat(size - 1) + ");");
+                    for (int i = 0; i < size; i++) {
+                        statement.setBytes(i + 1, ids[offset + Math.min(i, count - 1)]);
+                    }
+                    try (ResultSet result = statement.executeQuery()) {
+                        while (result.next()) {
+                            var row = readData(result);
+                            data.put(row.PlayerId, row);
+                        }
+                    }
+                }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while finding player data batch...\n%s", ex.getMessage()));
+                return null;
             }
-        } catch (Exception ex) {
-            _logger.Error(String.format("Unknown error happened while finding player data...\n%s", ex.getMessage()));
-            return null;
         }
         return data;
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the player data at the current row of a result set.
+     *
+     * @param result The result set, positioned on a row.
+     * @return The player's data.
+     * @throws SQLException If a column could not be read.
+     */
+    private PlayerDatabaseData readData(ResultSet result) throws SQLException {
+        return new PlayerDatabaseData(
+                UuidUtils.fromBytes(result.getBytes("PlayerId")),
+                result.getString("Sound"),
+                EMentionDisplay.fromCode(result.getInt("Display")),
+                EMentionPreference.fromCode(result.getInt("Preference"))
+        );
+    }
+
+    /**
+     * A SQLite database is never shared between servers, so there are never changes made elsewhere.
+     *
+     * @return An empty collection.
+     */
+    @Override
+    public Collection<UUID> getChangedPlayers() {
+        return List.of();
+    }
+
+    /**
+     * Appends offline mentions to the inbox in a single JDBC batch and transaction,
+     * then drops the oldest mentions of each mentioned player beyond the configured capacity.
+     *
+     * @param mentions The mentions to add.
+     */
+    @Override
+    public void addMentions(Collection<OfflineMention> mentions) {
+        if (mentions.isEmpty())
+            return;
+
+        synchronized (_lock) {
+            try {
+                Connection connection = getConnection();
+                PreparedStatement insert = prepare(_insertMentionSql);
+                PreparedStatement trim = prepare(_trimMentionsSql);
+                connection.setAutoCommit(false);
+                try {
+                    Set<UUID> targetIds = new HashSet<>();
+                    for (var mention : mentions) {
+                        insert.setBytes(1, UuidUtils.toBytes(mention.targetId()));
+                        insert.setString(2, mention.mentionerName());
+                        insert.setLong(3, mention.createdAt());
+                        insert.addBatch();
+                        targetIds.add(mention.targetId());
+                    }
+                    insert.executeBatch();
+
+                    int capacity = _config.offlineMentionCapacity;
+                    if (capacity > 0) {
+                        for (var targetId : targetIds) {
+                            byte[] id = UuidUtils.toBytes(targetId);
+                            trim.setBytes(1, id);
+                            trim.setBytes(2, id);
+                            trim.setInt(3, capacity);
+                            trim.addBatch();
+                        }
+                        trim.executeBatch();
+                    }
+                    connection.commit();
+                } catch (Exception ex) {
+                    insert.clearBatch();
+                    trim.clearBatch();
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while adding offline mentions...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Retrieves and removes the offline mentions of a player.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's mentions, oldest first, or null if the lookup failed.
+     */
+    @Override
+    public @Nullable List<OfflineMention> takeMentions(UUID playerId) {
+        List<OfflineMention> mentions = new ArrayList<>();
+        byte[] id = UuidUtils.toBytes(playerId);
+        synchronized (_lock) {
+            try {
+                PreparedStatement select = prepare(_selectMentionsSql);
+                select.setBytes(1, id);
+                long lastId = -1;
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        lastId = result.getLong("Id");
+                        mentions.add(new OfflineMention(playerId, result.getString("MentionerName"), result.getLong("CreatedAt")));
+                    }
+                }
+                if (lastId < 0)
+                    return mentions;
+
+                // Only delete what has been read, not a mention added in the meantime
+                PreparedStatement delete = prepare(_deleteMentionsSql);
+                delete.setBytes(1, id);
+                delete.setLong(2, lastId);
+                delete.executeUpdate();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while taking offline mentions...\n%s", ex.getMessage()));
+                return null;
+            }
+        }
+        return mentions;
+    }
+
+    /**
+     * Removes the offline mentions created before the given time.
+     *
+     * @param createdBefore The cutoff time, in milliseconds since the epoch.
+     */
+    @Override
+    public void removeMentionsBefore(long createdBefore) {
+        synchronized (_lock) {
+            try {
+                PreparedStatement statement = prepare(_deleteExpiredMentionsSql);
+                statement.setLong(1, createdBefore);
+                statement.executeUpdate();
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while removing expired offline mentions...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Stores the names of several players in a single JDBC batch and transaction.
+     *
+     * @param names The names, keyed by the unique identifier of the player.
+     */
+    @Override
+    public void updateNames(Map<UUID, String> names) {
+        if (names.isEmpty())
+            return;
+
+        synchronized (_lock) {
+            try {
+                Connection connection = getConnection();
+                PreparedStatement statement = prepare(_upsertNameSql);
+                connection.setAutoCommit(false);
+                try {
+                    for (var entry : names.entrySet()) {
+                        statement.setBytes(1, UuidUtils.toBytes(entry.getKey()));
+                        statement.setString(2, entry.getValue());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    connection.commit();
+                } catch (Exception ex) {
+                    statement.clearBatch();
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while updating player names...\n%s", ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Retrieves the name of every player who has ever joined.
+     *
+     * @return The names, keyed by the unique identifier of the player, or null if the lookup failed.
+     */
+    @Override
+    public @Nullable Map<UUID, String> getNames() {
+        Map<UUID, String> names = new HashMap<>();
+        synchronized (_lock) {
+            try (ResultSet result = prepare(_selectNamesSql).executeQuery()) {
+                while (result.next()) {
+                    names.put(UuidUtils.fromBytes(result.getBytes("PlayerId")), result.getString("Name"));
+                }
+            } catch (Exception ex) {
+                _logger.Error(String.format("Unknown error happened while getting player names...\n%s", ex.getMessage()));
+                return null;
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.tavstaldev.openMentions.managers;
+
+import io.github.tavstaldev.minecorelib.core.PluginLogger;
+import io.github.tavstaldev.openMentions.OpenMentions;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the players vanished with EssentialsX.
+ * The set is updated on the main thread from the vanish status change events, on join and on quit,
+ * and read from the async chat threads, so checking a player never calls into EssentialsX.
+ */
+public class VanishManager {
+    /** Logger instance for logging messages related to VanishManager. */
+    private static final PluginLogger _logger = OpenMentions.Logger().WithModule(VanishManager.class);
+
+    /** The unique identifiers of the vanished online players. */
+    private static final Set<UUID> _vanished = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Checks whether a player is vanished.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return True if the player is vanished, false otherwise.
+     */
+    public static boolean isVanished(UUID playerId) {
+        return _vanished.contains(playerId);
+    }
+
+    /**
+     * Sets whether a player is vanished.
+     *
+     * @param playerId The unique identifier of the player.
+     * @param vanished Whether the player is vanished.
+     */
+    public static void setVanished(UUID playerId, boolean vanished) {
+        if (vanished)
+            _vanished.add(playerId);
+        else
+            _vanished.remove(playerId);
+    }
+
+    /**
+     * Reads the vanish state of a player from EssentialsX. Must be called on the main thread.
+     *
+     * @param player The player to check.
+     */
+    public static void refreshPlayer(Player player) {
+        if (OpenMentions.EssentialsX == null)
+            return;
+
+        try {
+            var user = OpenMentions.EssentialsX.getUser(player);
+            setVanished(player.getUniqueId(), user != null && user.isVanished());
+        } catch (Exception ex) {
+            _logger.Error(String.format("Unknown error happened while checking the vanish state of %s...\n%s", player.getName(), ex.getMessage()));
+        }
+    }
+
+    /**
+     * Reads the vanish state of every online player from EssentialsX. Must be called on the main thread.
+     */
+    public static void refreshPlayers() {
+        for (var player : Bukkit.getOnlinePlayers()) {
+            refreshPlayer(player);
+        }
+    }
+
+    /**
+     * Forgets a player who left the server.
+     *
+     * @param playerId The unique identifier of the player.
+     */
+    public static void removePlayer(UUID playerId) {
+        _vanished.remove(playerId);
+    }
+}
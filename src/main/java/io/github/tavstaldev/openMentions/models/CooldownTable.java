@@ -0,0 +1,205 @@
+package io.github.tavstaldev.openMentions.models;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe table of cooldown deadlines, keyed by the two halves of a UUID.
+ * Deadlines are {@link System#nanoTime()} values. Entries live in flat primitive arrays
+ * with linear probing, lookups use optimistic reads and never allocate.
+ * Expired entries stay until {@link #sweep(long)} removes them.
+ */
+public final class CooldownTable {
+    /** Marks an empty slot, no real nanoTime deadline ever takes this value. */
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock _lock = new StampedLock();
+    private long[] _mostBits;
+    private long[] _leastBits;
+    private long[] _deadlines;
+    private int _size;
+
+    /**
+     * Creates a cooldown table.
+     *
+     * @param expectedSize The number of entries the table should hold without growing.
+     */
+    public CooldownTable(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Checks whether the given key has a cooldown that has not expired yet.
+     *
+     * @param mostBits The most significant bits of the UUID.
+     * @param leastBits The least significant bits of the UUID.
+     * @param now The current {@link System#nanoTime()} value.
+     * @return True if the key is on cooldown, false otherwise.
+     */
+    public boolean isActive(long mostBits, long leastBits, long now) {
+        long stamp = _lock.tryOptimisticRead();
+        long deadline = find(mostBits, leastBits);
+        if (!_lock.validate(stamp)) {
+            stamp = _lock.readLock();
+            try {
+                deadline = find(mostBits, leastBits);
+            } finally {
+                _lock.unlockRead(stamp);
+            }
+        }
+        return deadline != EMPTY && now - deadline < 0;
+    }
+
+    /**
+     * Sets the cooldown deadline of the given key.
+     *
+     * @param mostBits The most significant bits of the UUID.
+     * @param leastBits The least significant bits of the UUID.
+     * @param deadline The {@link System#nanoTime()} value at which the cooldown ends.
+     */
+    public void put(long mostBits, long leastBits, long deadline) {
+        if (deadline == EMPTY)
+            deadline++;
+        long stamp = _lock.writeLock();
+        try {
+            if ((_size + 1) * 4L > _deadlines.length * 3L)
+                rehash(_deadlines.length * 2);
+            insert(mostBits, leastBits, deadline);
+        } finally {
+            _lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every expired entry and shrinks the table if it became mostly empty.
+     *
+     * @param now The current {@link System#nanoTime()} value.
+     * @return The number of removed entries.
+     */
+    public int sweep(long now) {
+        long stamp = _lock.writeLock();
+        try {
+            int before = _size;
+            long[] mostBits = _mostBits;
+            long[] leastBits = _leastBits;
+            long[] deadlines = _deadlines;
+            int live = 0;
+            for (long deadline : deadlines) {
+                if (deadline != EMPTY && now - deadline < 0)
+                    live++;
+            }
+            if (live == before)
+                return 0;
+
+            // Leave room for twice the live entries, so a table that grew during a burst shrinks back
+            allocate(capacityFor(live * 2));
+            for (int i = 0; i < deadlines.length; i++) {
+                if (deadlines[i] != EMPTY && now - deadlines[i] < 0)
+                    insert(mostBits[i], leastBits[i], deadlines[i]);
+            }
+            return before - _size;
+        } finally {
+            _lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the number of entries in the table, including expired ones not swept yet.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        long stamp = _lock.readLock();
+        try {
+            return _size;
+        } finally {
+            _lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Looks up the deadline of a key. Safe to run without the lock as long as the result is validated,
+     * the probe count is bounded so a concurrent write can not make it loop forever.
+     *
+     * @return The deadline, or {@link #EMPTY} if the key is not present.
+     */
+    private long find(long mostBits, long leastBits) {
+        long[] keysMost = _mostBits;
+        long[] keysLeast = _leastBits;
+        long[] deadlines = _deadlines;
+        int mask = deadlines.length - 1;
+        if (keysMost.length != deadlines.length || keysLeast.length != deadlines.length)
+            return EMPTY; // Torn read during a resize, the caller retries under the lock
+        int index = hash(mostBits, leastBits) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long deadline = deadlines[index];
+            if (deadline == EMPTY)
+                return EMPTY;
+            if (keysMost[index] == mostBits && keysLeast[index] == leastBits)
+                return deadline;
+            index = (index + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Inserts or replaces an entry. The caller must hold the write lock and ensure there is a free slot.
+     */
+    private void insert(long mostBits, long leastBits, long deadline) {
+        int mask = _deadlines.length - 1;
+        int index = hash(mostBits, leastBits) & mask;
+        while (_deadlines[index] != EMPTY) {
+            if (_mostBits[index] == mostBits && _leastBits[index] == leastBits) {
+                _deadlines[index] = deadline;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        _mostBits[index] = mostBits;
+        _leastBits[index] = leastBits;
+        _deadlines[index] = deadline;
+        _size++;
+    }
+
+    /**
+     * Moves every entry into new arrays of the given capacity. The caller must hold the write lock.
+     */
+    private void rehash(int capacity) {
+        long[] mostBits = _mostBits;
+        long[] leastBits = _leastBits;
+        long[] deadlines = _deadlines;
+        allocate(capacity);
+        for (int i = 0; i < deadlines.length; i++) {
+            if (deadlines[i] != EMPTY)
+                insert(mostBits[i], leastBits[i], deadlines[i]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        _mostBits = new long[capacity];
+        _leastBits = new long[capacity];
+        long[] deadlines = new long[capacity];
+        Arrays.fill(deadlines, EMPTY);
+        _deadlines = deadlines;
+        _size = 0;
+    }
+
+    /**
+     * Gets the power of two capacity keeping the given number of entries under a 75% load factor.
+     */
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L < size * 4L)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private static int hash(long mostBits, long leastBits) {
+        long h = mostBits * 0x9E3779B97F4A7C15L ^ leastBits;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
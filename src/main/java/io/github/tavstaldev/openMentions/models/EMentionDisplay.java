@@ -6,23 +6,66 @@ package io.github.tavstaldev.openMentions.models;
  */
 public enum EMentionDisplay {
     /** Notification is displayed only in the chat. */
-    ONLY_CHAT,
+    ONLY_CHAT(0),
 
     /** Notification is displayed only in the action bar. */
-    ONLY_ACTIONBAR,
+    ONLY_ACTIONBAR(1),
 
     /** Notification is played only as a sound. */
-    ONLY_SOUND,
+    ONLY_SOUND(2),
 
     /** Notification is displayed in both the chat and the action bar. */
-    CHAT_AND_ACTIONBAR,
+    CHAT_AND_ACTIONBAR(3),
 
     /** Notification is displayed in the chat and played as a sound. */
-    CHAT_AND_SOUND,
+    CHAT_AND_SOUND(4),
 
     /** Notification is displayed in the action bar and played as a sound. */
-    ACTIONBAR_AND_SOUND,
+    ACTIONBAR_AND_SOUND(5),
 
     /** Notification is displayed in the chat, action bar, and played as a sound. */
-    ALL
+    ALL(6);
+
+    /** The enum values, indexed by their code. */
+    private static final EMentionDisplay[] _byCode;
+
+    static {
+        int maxCode = 0;
+        for (var value : values()) {
+            maxCode = Math.max(maxCode, value._code);
+        }
+        _byCode = new EMentionDisplay[maxCode + 1];
+        for (var value : values()) {
+            _byCode[value._code] = value;
+        }
+    }
+
+    /** Stable code stored in the database, must never change once released. */
+    private final int _code;
+
+    EMentionDisplay(int code) {
+        _code = code;
+    }
+
+    /**
+     * Gets the stable code stored in the database.
+     *
+     * @return The code of the value.
+     */
+    public int getCode() {
+        return _code;
+    }
+
+    /**
+     * Gets the value with the given database code.
+     *
+     * @param code The code of the value.
+     * @return The value with the given code.
+     * @throws IllegalArgumentException If no value has the given code.
+     */
+    public static EMentionDisplay fromCode(int code) {
+        if (code < 0 || code >= _byCode.length || _byCode[code] == null)
+            throw new IllegalArgumentException("Unknown EMentionDisplay code: " + code);
+        return _byCode[code];
+    }
 }
\ No newline at end of file
@@ -6,14 +6,57 @@ package io.github.tavstaldev.openMentions.models;
  */
 public enum EMentionPreference {
     /** Always receive mention notifications. */
-    ALWAYS,
+    ALWAYS(0),
 
     /** Do not receive mention notifications while in combat. */
-    NEVER_IN_COMBAT,
+    NEVER_IN_COMBAT(1),
 
     /** Receive notifications silently while in combat. */
-    SILENT_IN_COMBAT,
+    SILENT_IN_COMBAT(2),
 
     /** Never receive mention notifications. */
-    NEVER
+    NEVER(3);
+
+    /** The enum values, indexed by their code. */
+    private static final EMentionPreference[] _byCode;
+
+    static {
+        int maxCode = 0;
+        for (var value : values()) {
+            maxCode = Math.max(maxCode, value._code);
+        }
+        _byCode = new EMentionPreference[maxCode + 1];
+        for (var value : values()) {
+            _byCode[value._code] = value;
+        }
+    }
+
+    /** Stable code stored in the database, must never change once released. */
+    private final int _code;
+
+    EMentionPreference(int code) {
+        _code = code;
+    }
+
+    /**
+     * Gets the stable code stored in the database.
+     *
+     * @return The code of the value.
+     */
+    public int getCode() {
+        return _code;
+    }
+
+    /**
+     * Gets the value with the given database code.
+     *
+     * @param code The code of the value.
+     * @return The value with the given code.
+     * @throws IllegalArgumentException If no value has the given code.
+     */
+    public static EMentionPreference fromCode(int code) {
+        if (code < 0 || code >= _byCode.length || _byCode[code] == null)
+            throw new IllegalArgumentException("Unknown EMentionPreference code: " + code);
+        return _byCode[code];
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package io.github.tavstaldev.openMentions.models;
+
+/**
+ * Enum representing what happened to the mention of an online player.
+ */
+public enum EMentionResult {
+    /** A notification has been queued for delivery. */
+    QUEUED,
+
+    /** The player already had a notification waiting, the mention was merged into it. */
+    COALESCED,
+
+    /** The notification queue was full, the mention was dropped. */
+    DROPPED,
+
+    /** The mention was not sent, because of the mentioner's cooldown or the player's preference. */
+    SUPPRESSED;
+
+    /**
+     * Checks whether the player is notified of the mention, on its own or merged into another notification.
+     *
+     * @return True if the mention reached the player, false otherwise.
+     */
+    public boolean isNotified() {
+        return this == QUEUED || this == COALESCED;
+    }
+}
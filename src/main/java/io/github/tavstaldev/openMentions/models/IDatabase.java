@@ -1,6 +1,8 @@
 package io.github.tavstaldev.openMentions.models;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -34,6 +36,13 @@ public interface IDatabase {
      */
     void addData(UUID playerId, String soundKey, EMentionDisplay display, EMentionPreference preference);
 
+    /**
+     * Adds the data of several players in a single batch, skipping players that already have data.
+     *
+     * @param datas The data to add, one entry per player.
+     */
+    void addDatas(Collection<PlayerDatabaseData> datas);
+
     /**
      * Updates the sound key for a specific player in the database.
      *
@@ -68,6 +77,14 @@ public interface IDatabase {
      */
     void updateData(UUID playerId, String soundKey, EMentionDisplay display, EMentionPreference preference);
 
+    /**
+     * Updates all data for several players in a single batch.
+     *
+     * @param datas The data to write, one entry per player.
+     * @return True if the batch was written, false if it failed.
+     */
+    boolean updateDatas(Collection<PlayerDatabaseData> datas);
+
     /**
      * Removes a player's data from the database.
      *
@@ -75,6 +92,14 @@ public interface IDatabase {
      */
     void removeData(UUID playerId);
 
+    /**
+     * Removes the data of several players in a single batch.
+     *
+     * @param playerIds The unique identifiers of the players.
+     * @return True if the batch was written, false if it failed.
+     */
+    boolean removeDatas(Collection<UUID> playerIds);
+
     /**
      * Checks if data exists for a specific player in the database.
      *
@@ -97,4 +122,57 @@ public interface IDatabase {
      * @return The player's data, or null if no data is found.
      */
     PlayerDatabaseData getData(UUID playerId);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the data of several players with as few queries as possible.
+     *
+     * @param playerIds The unique identifiers of the players.
+     * @return The data found, keyed by the player's unique identifier, or null if the lookup failed.
+     */
+    Map<UUID, PlayerDatabaseData> getDatas(Collection<UUID> playerIds);
+
+    /**
+     * Retrieves the players whose data was changed by other servers sharing the database since the last call.
+     * Backends that can not be shared between servers always return an empty collection.
+     *
+     * @return The unique identifiers of the changed players.
+     */
+    Collection<UUID> getChangedPlayers();
+
+    /**
+     * Appends offline mentions to the inbox in a single batch.
+     * Only the configured number of newest mentions is kept for each player.
+     *
+     * @param mentions The mentions to add.
+     */
+    void addMentions(Collection<OfflineMention> mentions);
+
+    /**
+     * Retrieves and removes the offline mentions of a player, oldest first.
+     *
+     * @param playerId The unique identifier of the player.
+     * @return The player's mentions, or null if the lookup failed.
+     */
+    List<OfflineMention> takeMentions(UUID playerId);
+
+    /**
+     * Removes the offline mentions created before the given time.
+     *
+     * @param createdBefore The cutoff time, in milliseconds since the epoch.
+     */
+    void removeMentionsBefore(long createdBefore);
+
+    /**
+     * Stores the names of several players in a single batch, replacing their previous names.
+     *
+     * @param names The names, keyed by the unique identifier of the player.
+     */
+    void updateNames(Map<UUID, String> names);
+
+    /**
+     * Retrieves the name of every player who has ever joined.
+     *
+     * @return The names, keyed by the unique identifier of the player, or null if the lookup failed.
+     */
+    Map<UUID, String> getNames();
+}
@@ -0,0 +1,11 @@
+package io.github.tavstaldev.openMentions.models;
+
+import java.util.UUID;
+
+/**
+ * A player found in the name directory, who might be offline.
+ *
+ * @param playerId The unique identifier of the player.
+ * @param name The name of the player, as they spell it.
+ */
+public record KnownPlayer(UUID playerId, String name) {}
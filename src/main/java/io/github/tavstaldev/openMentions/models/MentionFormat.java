@@ -0,0 +1,33 @@
+package io.github.tavstaldev.openMentions.models;
+
+/**
+ * A permission based mention format, parsed from the configuration.
+ *
+ * @param permission The full permission node granting the format, e.g. "openmentions.format.admin".
+ * @param format The format template, where "%player%" is replaced with the mentioned player's name.
+ */
+public record MentionFormat(String permission, String format) {
+    /** Prefix of the permission nodes granting a mention format. */
+    public static final String PERMISSION_PREFIX = "openmentions.format.";
+
+    /**
+     * Creates a mention format for a permission group.
+     *
+     * @param group The name of the permission group.
+     * @param format The format template.
+     * @return The mention format.
+     */
+    public static MentionFormat ofGroup(String group, String format) {
+        return new MentionFormat(PERMISSION_PREFIX + group, format);
+    }
+
+    /**
+     * Applies the format to a player name.
+     *
+     * @param playerName The name of the mentioned player.
+     * @return The formatted mention.
+     */
+    public String apply(String playerName) {
+        return format.replace("%player%", playerName);
+    }
+}
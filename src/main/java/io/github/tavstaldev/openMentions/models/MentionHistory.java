@@ -0,0 +1,141 @@
+package io.github.tavstaldev.openMentions.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fixed-size ring buffer of the recent mentions of a player.
+ * Every slot is allocated up front in flat primitive arrays, including the characters of the message excerpts,
+ * so recording a mention never allocates and the memory used never grows, the oldest mention is overwritten instead.
+ * Written by the chat threads and read by the command, so every access is synchronized.
+ */
+public final class MentionHistory {
+    /** A mention read from the history. */
+    public record Entry(UUID mentionerId, long createdAt, String excerpt) {}
+
+    private final long[] _mostBits;
+    private final long[] _leastBits;
+    /** Time of each mention, in milliseconds since the epoch. */
+    private final long[] _times;
+    /** The excerpts, each slot owning {@link #_excerptLength} characters. */
+    private final char[] _excerpts;
+    private final int[] _excerptLengths;
+    private final int _excerptLength;
+    /** The slot the next mention is written to. */
+    private int _head;
+    private int _size;
+
+    /**
+     * Creates a history.
+     *
+     * @param capacity The number of mentions kept.
+     * @param excerptLength The maximum number of characters kept from each message.
+     */
+    public MentionHistory(int capacity, int excerptLength) {
+        _mostBits = new long[capacity];
+        _leastBits = new long[capacity];
+        _times = new long[capacity];
+        _excerptLength = Math.max(0, excerptLength);
+        _excerpts = new char[capacity * _excerptLength];
+        _excerptLengths = new int[capacity];
+    }
+
+    /**
+     * Records a mention, overwriting the oldest one if the history is full.
+     * Colour codes and MiniMessage tags are dropped from the excerpt, so it can be shown as it is.
+     *
+     * @param mentionerId The unique identifier of the player who sent the mention.
+     * @param createdAt The time of the mention, in milliseconds since the epoch.
+     * @param message The message holding the mention.
+     */
+    public synchronized void add(UUID mentionerId, long createdAt, String message) {
+        int capacity = _times.length;
+        if (capacity == 0)
+            return;
+
+        int slot = _head;
+        _mostBits[slot] = mentionerId.getMostSignificantBits();
+        _leastBits[slot] = mentionerId.getLeastSignificantBits();
+        _times[slot] = createdAt;
+
+        int offset = slot * _excerptLength;
+        int length = 0;
+        for (int i = 0; i < message.length() && length < _excerptLength; i++) {
+            char c = message.charAt(i);
+            if ((c == '&' || c == '§') && i + 1 < message.length() && isColorCode(message.charAt(i + 1))) {
+                i++;
+                continue;
+            }
+            if (c == '<') {
+                int close = findTagEnd(message, i);
+                if (close > 0) {
+                    i = close;
+                    continue;
+                }
+            }
+            if (c == '§')
+                continue;
+            _excerpts[offset + length++] = c;
+        }
+        _excerptLengths[slot] = length;
+
+        _head = (slot + 1) % capacity;
+        if (_size < capacity)
+            _size++;
+    }
+
+    /**
+     * Finds the end of a MiniMessage tag, like '&lt;red&gt;', '&lt;/bold&gt;' or '&lt;#ff0000&gt;'.
+     * A tag name starts with a letter, '#' or '!' and holds no whitespace, so text like '&lt;3' is not a tag.
+     *
+     * @param message The message.
+     * @param start The index of the '&lt;'.
+     * @return The index of the closing '&gt;', or -1 if no tag starts there.
+     */
+    private static int findTagEnd(String message, int start) {
+        int i = start + 1;
+        if (i < message.length() && message.charAt(i) == '/')
+            i++;
+        if (i >= message.length())
+            return -1;
+        char first = message.charAt(i);
+        if (!Character.isLetter(first) && first != '#' && first != '!')
+            return -1;
+
+        for (i++; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '>')
+                return i;
+            if (c == '<' || Character.isWhitespace(c))
+                return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a character follows '&amp;' in a legacy colour or formatting code.
+     */
+    private static boolean isColorCode(char c) {
+        return "0123456789abcdefklmnorxABCDEFKLMNORX".indexOf(c) >= 0;
+    }
+
+    /**
+     * Reads the recorded mentions.
+     *
+     * @return The mentions, newest first.
+     */
+    public synchronized List<Entry> getEntries() {
+        int capacity = _times.length;
+        List<Entry> entries = new ArrayList<>(_size);
+        for (int i = 1; i <= _size; i++) {
+            int slot = (_head - i + capacity) % capacity;
+            entries.add(new Entry(
+                    new UUID(_mostBits[slot], _leastBits[slot]),
+                    _times[slot],
+                    new String(_excerpts, slot * _excerptLength, _excerptLengths[slot])
+            ));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.tavstaldev.openMentions.models;
+
+import com.cryptomorin.xseries.XSound;
+
+import java.util.UUID;
+
+/**
+ * A mention notification waiting to be delivered on the main thread.
+ *
+ * @param targetId The unique identifier of the mentioned player.
+ * @param mentionerName The name of the player who mentioned the target.
+ * @param sound The resolved sound to play.
+ * @param display The display type for the mention notification.
+ * @param isSilent Whether the notification should be silent (no sound).
+ */
+public record MentionNotification(UUID targetId, String mentionerName, XSound sound, EMentionDisplay display, boolean isSilent) {
+}
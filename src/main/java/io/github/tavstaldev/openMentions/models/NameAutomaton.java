@@ -0,0 +1,191 @@
+package io.github.tavstaldev.openMentions.models;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Immutable Aho-Corasick automaton over a set of player names.
+ * Finds every occurrence of every name in a text with a single left-to-right pass,
+ * so the cost of a scan depends on the text length and not on the number of names.
+ */
+public final class NameAutomaton {
+    /** An automaton without any names, never reports a match. */
+    public static final NameAutomaton EMPTY = build(Map.of());
+
+    /** Sorted outgoing edge labels of each node. */
+    private final char[][] _edgeChars;
+    /** Target nodes of each node's outgoing edges, parallel to {@link #_edgeChars}. */
+    private final int[][] _edgeTargets;
+    /** Failure link of each node. */
+    private final int[] _fail;
+    /** Index of the name ending at each node, or -1. */
+    private final int[] _output;
+    /** Nearest node on the failure chain that ends a name, or -1. */
+    private final int[] _dictLink;
+
+    private final String[] _names;
+    private final UUID[] _playerIds;
+
+    /**
+     * Callback receiving the matches of a scan.
+     */
+    @FunctionalInterface
+    public interface MatchVisitor {
+        /**
+         * Called for each occurrence of a name in the scanned text.
+         *
+         * @param start The index of the first character of the match.
+         * @param end The index after the last character of the match.
+         * @param playerId The unique identifier of the matched player.
+         * @param name The matched player name.
+         * @return True to continue scanning, false to stop.
+         */
+        boolean visit(int start, int end, UUID playerId, String name);
+    }
+
+    private NameAutomaton(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[] output, int[] dictLink, String[] names, UUID[] playerIds) {
+        _edgeChars = edgeChars;
+        _edgeTargets = edgeTargets;
+        _fail = fail;
+        _output = output;
+        _dictLink = dictLink;
+        _names = names;
+        _playerIds = playerIds;
+    }
+
+    /**
+     * Builds an automaton from the given names.
+     *
+     * @param names The names to match, mapped to the unique identifier of their owner.
+     * @return The built automaton.
+     */
+    public static NameAutomaton build(Map<String, UUID> names) {
+        // Build the trie with sorted maps first, then freeze it into arrays.
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        outputs.add(-1);
+
+        String[] nameArray = new String[names.size()];
+        UUID[] idArray = new UUID[names.size()];
+        int nameIndex = 0;
+        for (var entry : names.entrySet()) {
+            String name = entry.getKey();
+            if (name == null || name.isEmpty())
+                continue;
+
+            int node = 0;
+            for (int i = 0; i < name.length(); i++) {
+                Integer next = trie.get(node).get(name.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    outputs.add(-1);
+                    trie.get(node).put(name.charAt(i), next);
+                }
+                node = next;
+            }
+            nameArray[nameIndex] = name;
+            idArray[nameIndex] = entry.getValue();
+            outputs.set(node, nameIndex);
+            nameIndex++;
+        }
+
+        int nodeCount = trie.size();
+        char[][] edgeChars = new char[nodeCount][];
+        int[][] edgeTargets = new int[nodeCount][];
+        int[] output = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            var edges = trie.get(node);
+            edgeChars[node] = new char[edges.size()];
+            edgeTargets[node] = new int[edges.size()];
+            int i = 0;
+            for (var edge : edges.entrySet()) {
+                edgeChars[node][i] = edge.getKey();
+                edgeTargets[node][i] = edge.getValue();
+                i++;
+            }
+            output[node] = outputs.get(node);
+        }
+
+        // Breadth-first pass computing the failure and dictionary links.
+        int[] fail = new int[nodeCount];
+        int[] dictLink = new int[nodeCount];
+        Arrays.fill(dictLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                char c = edgeChars[node][i];
+                int child = edgeTargets[node][i];
+                int state = fail[node];
+                int next;
+                while ((next = step(edgeChars, edgeTargets, state, c)) < 0 && state != 0)
+                    state = fail[state];
+                fail[child] = next < 0 ? 0 : next;
+                dictLink[child] = output[fail[child]] >= 0 ? fail[child] : dictLink[fail[child]];
+                queue.add(child);
+            }
+        }
+
+        return new NameAutomaton(edgeChars, edgeTargets, fail, output, dictLink,
+                Arrays.copyOf(nameArray, nameIndex), Arrays.copyOf(idArray, nameIndex));
+    }
+
+    /**
+     * Follows the edge labelled with the given character.
+     *
+     * @return The target node, or -1 if the node has no such edge.
+     */
+    private static int step(char[][] edgeChars, int[][] edgeTargets, int node, char c) {
+        int index = Arrays.binarySearch(edgeChars[node], c);
+        return index < 0 ? -1 : edgeTargets[node][index];
+    }
+
+    /**
+     * Scans the text and reports every occurrence of every name, in order of their end positions.
+     *
+     * @param text The text to scan.
+     * @param visitor The callback receiving the matches.
+     */
+    public void scan(CharSequence text, MatchVisitor visitor) {
+        if (_names.length == 0)
+            return;
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = step(_edgeChars, _edgeTargets, state, c)) < 0 && state != 0)
+                state = _fail[state];
+            state = next < 0 ? 0 : next;
+
+            int node = _output[state] >= 0 ? state : _dictLink[state];
+            while (node >= 0) {
+                int nameIndex = _output[node];
+                String name = _names[nameIndex];
+                if (!visitor.visit(i + 1 - name.length(), i + 1, _playerIds[nameIndex], name))
+                    return;
+                node = _dictLink[node];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of names in the automaton.
+     *
+     * @return The number of names.
+     */
+    public int size() {
+        return _names.length;
+    }
+}
@@ -0,0 +1,218 @@
+package io.github.tavstaldev.openMentions.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable, compact directory of player names, looked up case-insensitively.
+ * The names are stored as ASCII bytes back to back in a single array, sorted ignoring case,
+ * with the unique identifiers in two parallel primitive arrays. A lookup is a binary search
+ * over the byte array, so it neither allocates nor follows pointers, and an entry costs the
+ * length of the name plus 20 bytes.
+ * Only valid Minecraft names, 1 to 16 letters, digits and underscores, are stored.
+ */
+public final class NameDirectory {
+    /** A directory without any names, never finds anything. */
+    public static final NameDirectory EMPTY = build(Map.of());
+
+    /** Longest valid player name. */
+    public static final int MAX_NAME_LENGTH = 16;
+
+    /** The names, back to back, sorted ignoring case. */
+    private final byte[] _names;
+    /** Start of each name in {@link #_names}, followed by the end of the last name. */
+    private final int[] _offsets;
+    /** Most significant bits of each player's unique identifier, parallel to the names. */
+    private final long[] _mostBits;
+    /** Least significant bits of each player's unique identifier, parallel to the names. */
+    private final long[] _leastBits;
+
+    private NameDirectory(byte[] names, int[] offsets, long[] mostBits, long[] leastBits) {
+        _names = names;
+        _offsets = offsets;
+        _mostBits = mostBits;
+        _leastBits = leastBits;
+    }
+
+    /**
+     * Builds a directory from the given names. Invalid names are skipped, and when several players
+     * have the same name ignoring case, the one met last wins.
+     *
+     * @param names The names, keyed by the unique identifier of their owner.
+     * @return The built directory.
+     */
+    public static NameDirectory build(Map<UUID, String> names) {
+        Map<String, UUID> byName = new HashMap<>(names.size() * 4 / 3 + 1);
+        Map<String, String> spellings = new HashMap<>(names.size() * 4 / 3 + 1);
+        for (var entry : names.entrySet()) {
+            String name = entry.getValue();
+            if (!isValidName(name))
+                continue;
+            String key = toLowerAscii(name);
+            byName.put(key, entry.getKey());
+            spellings.put(key, name);
+        }
+
+        String[] keys = byName.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+
+        int totalLength = 0;
+        for (String key : keys) {
+            totalLength += key.length();
+        }
+        byte[] nameBytes = new byte[totalLength];
+        int[] offsets = new int[keys.length + 1];
+        long[] mostBits = new long[keys.length];
+        long[] leastBits = new long[keys.length];
+        int position = 0;
+        for (int i = 0; i < keys.length; i++) {
+            String name = spellings.get(keys[i]);
+            offsets[i] = position;
+            for (int j = 0; j < name.length(); j++) {
+                nameBytes[position++] = (byte) name.charAt(j);
+            }
+            UUID playerId = byName.get(keys[i]);
+            mostBits[i] = playerId.getMostSignificantBits();
+            leastBits[i] = playerId.getLeastSignificantBits();
+        }
+        offsets[keys.length] = position;
+        return new NameDirectory(nameBytes, offsets, mostBits, leastBits);
+    }
+
+    /**
+     * Finds a name in the directory, ignoring case.
+     *
+     * @param text The text holding the name.
+     * @param start The index of the first character of the name.
+     * @param end The index after the last character of the name.
+     * @return The index of the entry, or -1 if the name is not in the directory.
+     */
+    public int find(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length < 1 || length > MAX_NAME_LENGTH)
+            return -1;
+
+        int low = 0;
+        int high = _mostBits.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(middle, text, start, end);
+            if (comparison < 0)
+                low = middle + 1;
+            else if (comparison > 0)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the name of an entry with a range of text, ignoring case.
+     */
+    private int compare(int index, CharSequence text, int start, int end) {
+        int from = _offsets[index];
+        int to = _offsets[index + 1];
+        int length = Math.min(to - from, end - start);
+        for (int i = 0; i < length; i++) {
+            int a = toLowerAscii((char) _names[from + i]);
+            int b = toLowerAscii(text.charAt(start + i));
+            if (a != b)
+                return a - b;
+        }
+        return (to - from) - (end - start);
+    }
+
+    /**
+     * Gets the unique identifier of an entry.
+     *
+     * @param index The index of the entry.
+     * @return The unique identifier of the player.
+     */
+    public UUID getPlayerId(int index) {
+        return new UUID(_mostBits[index], _leastBits[index]);
+    }
+
+    /**
+     * Checks whether an entry belongs to the given player, without allocating.
+     *
+     * @param index The index of the entry.
+     * @param playerId The unique identifier of the player.
+     * @return True if the entry belongs to the player, false otherwise.
+     */
+    public boolean isPlayer(int index, UUID playerId) {
+        return _mostBits[index] == playerId.getMostSignificantBits() && _leastBits[index] == playerId.getLeastSignificantBits();
+    }
+
+    /**
+     * Gets the name of an entry, as the player spells it.
+     *
+     * @param index The index of the entry.
+     * @return The name of the player.
+     */
+    public String getName(int index) {
+        int from = _offsets[index];
+        char[] name = new char[_offsets[index + 1] - from];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) _names[from + i];
+        }
+        return new String(name);
+    }
+
+    /**
+     * Copies every entry into a map.
+     *
+     * @param target The map receiving the names, keyed by the unique identifier of their owner.
+     */
+    public void copyTo(Map<UUID, String> target) {
+        for (int i = 0; i < _mostBits.length; i++) {
+            target.put(getPlayerId(i), getName(i));
+        }
+    }
+
+    /**
+     * Gets the number of names in the directory.
+     *
+     * @return The number of names.
+     */
+    public int size() {
+        return _mostBits.length;
+    }
+
+    /**
+     * Checks whether a character may appear in a player name.
+     *
+     * @param c The character.
+     * @return True for ASCII letters, digits and underscores.
+     */
+    public static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Checks whether a name can be stored in the directory.
+     */
+    private static boolean isValidName(String name) {
+        if (name == null || name.isEmpty() || name.length() > MAX_NAME_LENGTH)
+            return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (!isNameChar(name.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static String toLowerAscii(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = toLowerAscii(chars[i]);
+        }
+        return new String(chars);
+    }
+}
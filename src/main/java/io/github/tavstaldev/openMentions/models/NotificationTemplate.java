@@ -0,0 +1,109 @@
+package io.github.tavstaldev.openMentions.models;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mention notification message, colour translated and split around the "%player%" placeholder once when it is built.
+ * Only the mentioner's name is joined between the parts when the notification is sent.
+ *
+ * @param parts The parts of the message around the placeholders, always one more than the placeholders.
+ * @param nameStyles The style of each placeholder, in order.
+ */
+public record NotificationTemplate(List<Component> parts, List<Style> nameStyles) {
+    /** The placeholder replaced with the name of the mentioner. */
+    public static final String PLAYER_PLACEHOLDER = "%player%";
+
+    /**
+     * Builds a template from a translated message by splitting it around the placeholders.
+     * The message is flattened while it is split, every piece keeps the style it inherited from its parents.
+     *
+     * @param message The translated message, possibly containing the "%player%" placeholder.
+     * @return The template.
+     */
+    public static NotificationTemplate of(Component message) {
+        List<Component> parts = new ArrayList<>();
+        List<Style> nameStyles = new ArrayList<>();
+        List<Component> current = new ArrayList<>();
+        split(message, Style.empty(), current, parts, nameStyles);
+        parts.add(join(current));
+        return new NotificationTemplate(List.copyOf(parts), List.copyOf(nameStyles));
+    }
+
+    /**
+     * Applies the template to the name of the mentioner.
+     * The name keeps the style of the placeholder it replaces.
+     *
+     * @param mentionerName The name of the player who mentioned the target player.
+     * @return The message to send.
+     */
+    public Component apply(String mentionerName) {
+        if (nameStyles.isEmpty())
+            return parts.get(0);
+
+        TextComponent.Builder builder = Component.text();
+        for (int i = 0; i < nameStyles.size(); i++) {
+            builder.append(parts.get(i));
+            builder.append(Component.text(mentionerName, nameStyles.get(i)));
+        }
+        builder.append(parts.get(nameStyles.size()));
+        return builder.build();
+    }
+
+    /**
+     * Flattens a component into pieces, closing the current part at every placeholder.
+     *
+     * @param component The component to split.
+     * @param parentStyle The style inherited from the parents of the component.
+     * @param current The pieces of the part being built.
+     * @param parts The finished parts.
+     * @param nameStyles The styles of the placeholders found so far.
+     */
+    private static void split(Component component, Style parentStyle, List<Component> current, List<Component> parts, List<Style> nameStyles) {
+        Style style = component.style().merge(parentStyle, Style.Merge.Strategy.IF_ABSENT_ON_TARGET);
+        if (component instanceof TextComponent text) {
+            String content = text.content();
+            int start = 0;
+            int index;
+            while ((index = content.indexOf(PLAYER_PLACEHOLDER, start)) >= 0) {
+                if (index > start)
+                    current.add(Component.text(content.substring(start, index), style));
+                parts.add(join(current));
+                current.clear();
+                nameStyles.add(style);
+                start = index + PLAYER_PLACEHOLDER.length();
+            }
+            if (start < content.length())
+                current.add(Component.text(content.substring(start), style));
+        } else {
+            // Other components are kept whole, only their children are flattened
+            current.add(component.children(List.of()).style(style));
+        }
+
+        for (var child : component.children()) {
+            split(child, style, current, parts, nameStyles);
+        }
+    }
+
+    /**
+     * Joins the pieces of a part into a single component.
+     *
+     * @param pieces The pieces, in order.
+     * @return The part.
+     */
+    private static Component join(List<Component> pieces) {
+        if (pieces.isEmpty())
+            return Component.empty();
+        if (pieces.size() == 1)
+            return pieces.get(0);
+        TextComponent.Builder builder = Component.text();
+        for (var piece : pieces) {
+            builder.append(piece);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.tavstaldev.openMentions.models;
+
+import java.util.UUID;
+
+/**
+ * A mention of a player who was offline, kept in their inbox until they join.
+ *
+ * @param targetId The unique identifier of the mentioned player.
+ * @param mentionerName The name of the player who mentioned them.
+ * @param createdAt When the mention happened, in milliseconds since the epoch.
+ */
+public record OfflineMention(UUID targetId, String mentionerName, long createdAt) {}
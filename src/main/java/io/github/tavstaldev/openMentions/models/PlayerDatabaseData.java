@@ -1,24 +1,32 @@
 package io.github.tavstaldev.openMentions.models;
 
+import com.cryptomorin.xseries.XSound;
+import io.github.tavstaldev.openMentions.utils.SoundUtils;
+
 import java.util.UUID;
 
 /**
  * Represents the database data for a player.
  * This class stores information about a player's preferences and settings
  * for mention notifications.
+ * Instances are immutable snapshots, so they can be shared with the async chat threads;
+ * use the with* methods to derive an updated copy.
  */
 public class PlayerDatabaseData {
     /** The unique identifier of the player. */
-    public UUID PlayerId;
+    public final UUID PlayerId;
 
     /** The name of the sound associated with the player's mention notifications. */
-    public String SoundName;
+    public final String SoundName;
+
+    /** The sound resolved from {@link #SoundName} when the snapshot was created. Not stored. */
+    public final XSound Sound;
 
     /** The display option for the player's mention notifications. */
-    public EMentionDisplay Display;
+    public final EMentionDisplay Display;
 
     /** The preference for receiving mention notifications. */
-    public EMentionPreference Preference;
+    public final EMentionPreference Preference;
 
     /**
      * Constructs a new PlayerDatabaseData instance with the specified parameters.
@@ -31,7 +39,47 @@ public class PlayerDatabaseData {
     public PlayerDatabaseData(UUID playerId, String soundName, EMentionDisplay display, EMentionPreference preference) {
         PlayerId = playerId;
         SoundName = soundName;
+        Sound = SoundUtils.resolveSound(soundName);
         Display = display;
         Preference = preference;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a copy of this data with a different sound.
+     *
+     * @param soundName The name of the new sound.
+     * @return The updated copy.
+     */
+    public PlayerDatabaseData withSoundName(String soundName) {
+        return new PlayerDatabaseData(PlayerId, soundName, Display, Preference);
+    }
+
+    /**
+     * Creates a copy of this data with a different display option.
+     *
+     * @param display The new display option.
+     * @return The updated copy.
+     */
+    public PlayerDatabaseData withDisplay(EMentionDisplay display) {
+        return new PlayerDatabaseData(PlayerId, SoundName, display, Preference);
+    }
+
+    /**
+     * Creates a copy of this data with a different preference.
+     *
+     * @param preference The new preference.
+     * @return The updated copy.
+     */
+    public PlayerDatabaseData withPreference(EMentionPreference preference) {
+        return new PlayerDatabaseData(PlayerId, SoundName, Display, preference);
+    }
+
+    /**
+     * Creates a copy of this data with the sound resolved again, for example after a reload.
+     *
+     * @return The updated copy.
+     */
+    public PlayerDatabaseData withResolvedSound() {
+        return new PlayerDatabaseData(PlayerId, SoundName, Display, Preference);
+    }
+}
@@ -0,0 +1,307 @@
+package io.github.tavstaldev.openMentions.models;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of checksummed records in a memory-mapped file.
+ * The file starts with a magic number and a format version, followed by records made of the payload length,
+ * a CRC32C checksum and the payload. Records are written body first and length last, so a torn write reads
+ * as the end of the log.
+ * The mapping grows in steps. A replaced mapping is released right away instead of waiting for the garbage
+ * collector, and so is the mapping of a closed log, so a closed log file can be renamed or replaced,
+ * which Windows refuses while the file is still mapped.
+ * Not thread-safe, the owner must serialize every access.
+ */
+public final class RecordLog {
+    /** Magic number and format version at the start of the file. */
+    public static final int HEADER_SIZE = 8;
+    /** Length and checksum in front of every record. */
+    public static final int RECORD_HEADER_SIZE = 8;
+    /** The mapped region grows in steps of this size. */
+    public static final int GROW_STEP = 1024 * 1024;
+
+    /** Receives the records of the log while it is replayed. */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * Handles a record.
+         *
+         * @param payload The payload of the record, only valid during the call.
+         * @param length The length of the payload.
+         */
+        void accept(byte[] payload, int length);
+    }
+
+    /**
+     * Unsafe.invokeCleaner bound to the Unsafe instance, or null if it is not available.
+     * Java has no public way to release a mapping, without this it stays until the buffer is garbage collected.
+     */
+    private static final MethodHandle _invokeCleaner = findInvokeCleaner();
+
+    private final Path _path;
+    private final int _minPayloadSize;
+    private final int _maxPayloadSize;
+    private final CRC32C _crc = new CRC32C();
+    private FileChannel _channel;
+    private MappedByteBuffer _buffer;
+    /** Position where the next record is written. */
+    private int _tail = HEADER_SIZE;
+
+    private RecordLog(Path path, int minPayloadSize, int maxPayloadSize) {
+        _path = path;
+        _minPayloadSize = minPayloadSize;
+        _maxPayloadSize = maxPayloadSize;
+    }
+
+    /**
+     * Opens a log file, creating it with the given version if it does not exist.
+     * The records are not read, call {@link #replay(RecordVisitor)} to read them and find the end of the log.
+     *
+     * @param path The path of the file.
+     * @param magic The magic number marking the file as a log.
+     * @param version The format version written to a new file.
+     * @param minPayloadSize The length of the shortest valid record payload.
+     * @param maxPayloadSize The length of the longest valid record payload.
+     * @return The opened log.
+     * @throws IOException If the file could not be opened or is not a log with the given magic number.
+     */
+    public static RecordLog open(Path path, int magic, int version, int minPayloadSize, int maxPayloadSize) throws IOException {
+        RecordLog log = new RecordLog(path, minPayloadSize, maxPayloadSize);
+        log._channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = log._channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("The log is too large to be mapped.");
+            if (size > 0) {
+                // Check the header before mapping, mapping past the end would grow a file that is not a log
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                if (size < HEADER_SIZE || log._channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != magic)
+                    throw new IOException(path + " is not a log file of the expected kind.");
+            }
+            log._buffer = log._channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, GROW_STEP));
+
+            if (size == 0) {
+                log._buffer.putInt(0, magic);
+                log._buffer.putInt(4, version);
+            }
+        } catch (IOException ex) {
+            log.close();
+            throw ex;
+        }
+        return log;
+    }
+
+    /**
+     * Gets the format version stored in the file.
+     *
+     * @return The format version.
+     */
+    public int getVersion() {
+        return _buffer.getInt(4);
+    }
+
+    /**
+     * Replaces the format version stored in the file.
+     *
+     * @param version The new format version.
+     */
+    public void setVersion(int version) {
+        _buffer.putInt(4, version);
+    }
+
+    /**
+     * Gets the path of the file.
+     *
+     * @return The path of the file.
+     */
+    public Path getPath() {
+        return _path;
+    }
+
+    /**
+     * Gets the number of bytes used by the header and the records.
+     *
+     * @return The position where the next record is written.
+     */
+    public int getTail() {
+        return _tail;
+    }
+
+    /**
+     * Reads every record of the log in order, and positions the log after the last valid one.
+     * A torn or corrupt record ends the log, everything from it on is cleared,
+     * so an old record can never reappear behind a newer one.
+     *
+     * @param visitor Receives the records.
+     * @return True if the log was damaged and records have been dropped, false otherwise.
+     */
+    public boolean replay(RecordVisitor visitor) {
+        int position = HEADER_SIZE;
+        int limit = _buffer.capacity();
+        byte[] payload = new byte[_maxPayloadSize];
+        boolean damaged = false;
+
+        while (position + RECORD_HEADER_SIZE <= limit) {
+            int length = _buffer.getInt(position);
+            if (length == 0)
+                break; // End of the log
+            int checksum = _buffer.getInt(position + 4);
+            if (length < _minPayloadSize || length > _maxPayloadSize || position + RECORD_HEADER_SIZE + length > limit) {
+                damaged = true;
+                break;
+            }
+            _buffer.get(position + RECORD_HEADER_SIZE, payload, 0, length);
+            _crc.reset();
+            _crc.update(payload, 0, length);
+            if ((int) _crc.getValue() != checksum) {
+                damaged = true;
+                break;
+            }
+
+            visitor.accept(payload, length);
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        _tail = position;
+        if (damaged) {
+            for (int i = position; i < limit; i++) {
+                _buffer.put(i, (byte) 0);
+            }
+        }
+        return damaged;
+    }
+
+    /**
+     * Appends a record to the end of the log, growing the mapping if needed.
+     *
+     * @param payload The array holding the payload.
+     * @param offset The start of the payload in the array.
+     * @param length The length of the payload.
+     * @return The size of the record, header included.
+     * @throws IOException If the log is closed, the payload is invalid, or the log can not grow any further.
+     */
+    public int append(byte[] payload, int offset, int length) throws IOException {
+        if (_buffer == null)
+            throw new IOException("The log is not open.");
+        if (length < _minPayloadSize || length > _maxPayloadSize)
+            throw new IOException("Invalid record length: " + length);
+
+        _crc.reset();
+        _crc.update(payload, offset, length);
+        int size = RECORD_HEADER_SIZE + length;
+        ensureCapacity((long) _tail + size);
+        // Write the body first and the length last, so a torn write reads as the end of the log
+        _buffer.putInt(_tail + 4, (int) _crc.getValue());
+        _buffer.put(_tail + RECORD_HEADER_SIZE, payload, offset, length);
+        _buffer.putInt(_tail, length);
+        _tail += size;
+        return size;
+    }
+
+    /**
+     * Writes the mapped pages back to the file.
+     */
+    public void force() {
+        if (_buffer != null)
+            _buffer.force();
+    }
+
+    /**
+     * Checks whether the log is still open.
+     *
+     * @return True if the log is open, false otherwise.
+     */
+    public boolean isOpen() {
+        return _buffer != null;
+    }
+
+    /**
+     * Writes the mapped pages back, releases the mapping and closes the file. Does nothing if already closed.
+     *
+     * @throws IOException If the file could not be closed.
+     */
+    public void close() throws IOException {
+        MappedByteBuffer buffer = _buffer;
+        FileChannel channel = _channel;
+        _buffer = null;
+        _channel = null;
+        try {
+            if (buffer != null) {
+                buffer.force();
+                unmap(buffer);
+            }
+        } finally {
+            if (channel != null)
+                channel.close();
+        }
+    }
+
+    /**
+     * Grows the mapping so that it covers at least the given number of bytes.
+     */
+    private void ensureCapacity(long required) throws IOException {
+        if (required <= _buffer.capacity())
+            return;
+        long capacity = Math.max((long) _buffer.capacity() * 2, (required + GROW_STEP - 1) / GROW_STEP * GROW_STEP);
+        if (capacity > Integer.MAX_VALUE)
+            throw new IOException("The log is full.");
+
+        MappedByteBuffer oldBuffer = _buffer;
+        _buffer = _channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        // The new mapping covers the old one, release the old one instead of keeping both alive
+        unmap(oldBuffer);
+    }
+
+    /**
+     * Finds Unsafe.invokeCleaner, which releases a mapping right away.
+     *
+     * @return The method bound to the Unsafe instance, or null if it is not available.
+     */
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Releases a mapping right away. The buffer must not be used afterwards.
+     * Falls back to the garbage collector if the mapping can not be released.
+     *
+     * @param buffer The mapping to release.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (_invokeCleaner == null)
+            return;
+        try {
+            _invokeCleaner.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable ignored) {
+            // Left to the garbage collector
+        }
+    }
+
+    /**
+     * Checks whether mappings are released right away on this runtime.
+     *
+     * @return True if closed and replaced mappings are released right away, false if they wait for the garbage collector.
+     */
+    public static boolean canUnmap() {
+        return _invokeCleaner != null;
+    }
+}
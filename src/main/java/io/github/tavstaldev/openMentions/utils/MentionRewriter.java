@@ -0,0 +1,294 @@
+package io.github.tavstaldev.openMentions.utils;
+
+import io.github.tavstaldev.openMentions.managers.NameDirectoryManager;
+import io.github.tavstaldev.openMentions.models.NameAutomaton;
+import io.github.tavstaldev.openMentions.models.NameDirectory;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Finds the mention spans of a chat message in a single scan and rewrites the message in a single pass.
+ * Instances keep their span arrays and output buffer between messages, so each chat thread
+ * reuses one rewriter through {@link #get()} instead of allocating per message.
+ */
+public final class MentionRewriter {
+    /** One rewriter per chat thread. */
+    private static final ThreadLocal<MentionRewriter> _local = ThreadLocal.withInitial(MentionRewriter::new);
+
+    // Mention spans, ordered by their start index and never overlapping.
+    private int[] _spanStarts = new int[8];
+    private int[] _spanEnds = new int[8];
+    private int[] _spanTargets = new int[8];
+    private int _spanCount;
+
+    // Distinct mentioned players in order of their first mention, with the text replacing their mentions.
+    private UUID[] _targetIds = new UUID[8];
+    private String[] _targetNames = new String[8];
+    private String[] _replacements = new String[8];
+    private int _targetCount;
+
+    /** Reusable output buffer. */
+    private final StringBuilder _buffer = new StringBuilder(256);
+
+    private MentionRewriter() {}
+
+    /**
+     * Retrieves the rewriter of the current thread.
+     *
+     * @return The rewriter of the current thread.
+     */
+    public static MentionRewriter get() {
+        return _local.get();
+    }
+
+    /**
+     * Scans a message and collects its mention spans.
+     * A span covers a player name and the mention symbol directly before it, if any.
+     * When spans overlap, the leftmost and then longest one wins.
+     * Players who are not in the automaton, like offline players, are only found after a mention symbol.
+     *
+     * @param message The message to scan.
+     * @param automaton The automaton holding the names that can be mentioned.
+     * @param symbols The mention symbols, ordered from the longest to the shortest.
+     * @param requireSymbol Whether a name only counts as a mention when preceded by a symbol.
+     * @param includeKnown Whether to look up the names after mention symbols in the directory of known players.
+     */
+    public void scan(String message, NameAutomaton automaton, String[] symbols, boolean requireSymbol, boolean includeKnown) {
+        _spanCount = 0;
+        _targetCount = 0;
+
+        automaton.scan(message, (start, end, playerId, name) -> {
+            int spanStart = start;
+            for (String symbol : symbols) {
+                int symbolStart = start - symbol.length();
+                if (symbolStart >= 0 && message.startsWith(symbol, symbolStart)) {
+                    spanStart = symbolStart;
+                    break;
+                }
+            }
+            if (requireSymbol && spanStart == start)
+                return true;
+
+            addSpan(spanStart, end, playerId, name);
+            return true;
+        });
+
+        if (includeKnown && symbols.length > 0)
+            scanKnownPlayers(message, symbols);
+
+        if (_spanCount > 1)
+            removeOverlaps();
+    }
+
+    /**
+     * Looks up the name following each mention symbol in the directory of known players.
+     * Symbols directly after a name character, like in an e-mail address, are skipped,
+     * and so are names already covered by a span of the automaton.
+     */
+    private void scanKnownPlayers(String message, String[] symbols) {
+        int length = message.length();
+        for (int i = 0; i < length; i++) {
+            if (i > 0 && NameDirectory.isNameChar(message.charAt(i - 1)))
+                continue;
+
+            for (String symbol : symbols) {
+                if (!message.startsWith(symbol, i))
+                    continue;
+
+                int nameStart = i + symbol.length();
+                int nameEnd = nameStart;
+                while (nameEnd < length && NameDirectory.isNameChar(message.charAt(nameEnd)))
+                    nameEnd++;
+                if (nameEnd > nameStart && nameEnd - nameStart <= NameDirectory.MAX_NAME_LENGTH && !isCovered(nameStart)) {
+                    var player = NameDirectoryManager.resolve(message, nameStart, nameEnd);
+                    if (player != null)
+                        addSpan(i, nameEnd, player.playerId(), player.name());
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Checks whether an index is inside one of the spans found so far.
+     */
+    private boolean isCovered(int index) {
+        for (int i = 0; i < _spanCount; i++) {
+            if (_spanStarts[i] <= index && index < _spanEnds[i])
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of distinct players mentioned by the scanned message.
+     *
+     * @return The number of mentioned players.
+     */
+    public int getTargetCount() {
+        return _targetCount;
+    }
+
+    /**
+     * Gets the unique identifier of a mentioned player.
+     *
+     * @param index The index of the player, in order of their first mention.
+     * @return The unique identifier of the player.
+     */
+    public UUID getTargetId(int index) {
+        return _targetIds[index];
+    }
+
+    /**
+     * Gets the name of a mentioned player.
+     *
+     * @param index The index of the player, in order of their first mention.
+     * @return The name of the player.
+     */
+    public String getTargetName(int index) {
+        return _targetNames[index];
+    }
+
+    /**
+     * Sets the text replacing every mention of a player.
+     * Mentions of players without a replacement are kept as they are.
+     *
+     * @param index The index of the player, in order of their first mention.
+     * @param replacement The replacement text.
+     */
+    public void setReplacement(int index, String replacement) {
+        _replacements[index] = replacement;
+    }
+
+    /**
+     * Writes the rewritten message in a single pass.
+     * Mentions are substituted with their replacements and '&amp;' colour codes are translated to '§'.
+     *
+     * @param message The scanned message.
+     * @return The rewritten message.
+     */
+    public String rewrite(String message) {
+        StringBuilder buffer = _buffer;
+        buffer.setLength(0);
+        int position = 0;
+        for (int i = 0; i < _spanCount; i++) {
+            String replacement = _replacements[_spanTargets[i]];
+            if (replacement == null)
+                continue;
+            appendTranslated(buffer, message, position, _spanStarts[i]);
+            appendTranslated(buffer, replacement, 0, replacement.length());
+            position = _spanEnds[i];
+        }
+        appendTranslated(buffer, message, position, message.length());
+
+        String result = buffer.toString();
+        // Do not let a single huge message pin a huge buffer to the thread
+        if (buffer.capacity() > 4096) {
+            buffer.setLength(0);
+            buffer.trimToSize();
+        }
+        return result;
+    }
+
+    /**
+     * Appends a range of text to the buffer, translating '&amp;' to '§'.
+     */
+    private static void appendTranslated(StringBuilder buffer, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            buffer.append(c == '&' ? '§' : c);
+        }
+    }
+
+    /**
+     * Records a span and registers its target player if it is not known yet.
+     */
+    private void addSpan(int start, int end, UUID playerId, String name) {
+        int target = -1;
+        for (int i = 0; i < _targetCount; i++) {
+            if (_targetIds[i].equals(playerId)) {
+                target = i;
+                break;
+            }
+        }
+        if (target < 0) {
+            if (_targetCount == _targetIds.length) {
+                _targetIds = Arrays.copyOf(_targetIds, _targetCount * 2);
+                _targetNames = Arrays.copyOf(_targetNames, _targetCount * 2);
+                _replacements = Arrays.copyOf(_replacements, _targetCount * 2);
+            }
+            target = _targetCount++;
+            _targetIds[target] = playerId;
+            _targetNames[target] = name;
+            _replacements[target] = null;
+        }
+
+        if (_spanCount == _spanStarts.length) {
+            _spanStarts = Arrays.copyOf(_spanStarts, _spanCount * 2);
+            _spanEnds = Arrays.copyOf(_spanEnds, _spanCount * 2);
+            _spanTargets = Arrays.copyOf(_spanTargets, _spanCount * 2);
+        }
+        _spanStarts[_spanCount] = start;
+        _spanEnds[_spanCount] = end;
+        _spanTargets[_spanCount] = target;
+        _spanCount++;
+    }
+
+    /**
+     * Sorts the spans by start index, longest first, then drops every span overlapping an earlier one.
+     * Targets left without spans are removed as well.
+     */
+    private void removeOverlaps() {
+        // Insertion sort, a chat message only holds a handful of spans
+        for (int i = 1; i < _spanCount; i++) {
+            int start = _spanStarts[i], end = _spanEnds[i], target = _spanTargets[i];
+            int j = i - 1;
+            while (j >= 0 && (_spanStarts[j] > start || (_spanStarts[j] == start && _spanEnds[j] < end))) {
+                _spanStarts[j + 1] = _spanStarts[j];
+                _spanEnds[j + 1] = _spanEnds[j];
+                _spanTargets[j + 1] = _spanTargets[j];
+                j--;
+            }
+            _spanStarts[j + 1] = start;
+            _spanEnds[j + 1] = end;
+            _spanTargets[j + 1] = target;
+        }
+
+        int kept = 0;
+        int lastEnd = 0;
+        for (int i = 0; i < _spanCount; i++) {
+            if (_spanStarts[i] < lastEnd)
+                continue;
+            _spanStarts[kept] = _spanStarts[i];
+            _spanEnds[kept] = _spanEnds[i];
+            _spanTargets[kept] = _spanTargets[i];
+            lastEnd = _spanEnds[i];
+            kept++;
+        }
+        if (kept == _spanCount)
+            return;
+        _spanCount = kept;
+
+        // Compact the targets, keeping them in order of their first remaining mention
+        int[] remap = new int[_targetCount];
+        Arrays.fill(remap, -1);
+        UUID[] targetIds = new UUID[_targetIds.length];
+        String[] targetNames = new String[_targetNames.length];
+        int targetCount = 0;
+        for (int i = 0; i < _spanCount; i++) {
+            int target = _spanTargets[i];
+            if (remap[target] < 0) {
+                remap[target] = targetCount;
+                targetIds[targetCount] = _targetIds[target];
+                targetNames[targetCount] = _targetNames[target];
+                targetCount++;
+            }
+            _spanTargets[i] = remap[target];
+        }
+        _targetIds = targetIds;
+        _targetNames = targetNames;
+        Arrays.fill(_replacements, null);
+        _targetCount = targetCount;
+    }
+}
@@ -2,18 +2,20 @@ package io.github.tavstaldev.openMentions.utils;
 
 import com.cryptomorin.xseries.XSound;
 import io.github.tavstaldev.minecorelib.core.PluginLogger;
-import io.github.tavstaldev.minecorelib.utils.ChatUtils;
-import io.github.tavstaldev.minecorelib.utils.TypeUtils;
 import io.github.tavstaldev.openMentions.OpenMentions;
+import io.github.tavstaldev.openMentions.managers.MentionDispatcher;
+import io.github.tavstaldev.openMentions.managers.MentionInboxManager;
+import io.github.tavstaldev.openMentions.managers.NotificationTemplateManager;
 import io.github.tavstaldev.openMentions.managers.PlayerCacheManager;
 import io.github.tavstaldev.openMentions.models.EMentionDisplay;
+import io.github.tavstaldev.openMentions.models.EMentionResult;
+import io.github.tavstaldev.openMentions.models.MentionNotification;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class for handling player mentions in the OpenMentions plugin.
@@ -25,40 +27,74 @@ public class MentionUtils {
 
     /**
      * Retrieves the formatted mention string for a player.
-     * The format is determined by the player's permissions or the default format in the configuration.
+     * Uses the format cached in the PlayerCacheManager, resolving it only if it is missing.
+     * A missing format is not stored, since this runs on the chat threads and the player might be leaving;
+     * the cache is only written on join, on reload and by the main-thread refresh.
      *
      * @param player The player for whom the mention format is retrieved.
      * @return The formatted mention string.
      */
     public static String getFormattedMention(Player player) {
-        var config = OpenMentions.Config();
-        String format = config.getString("formatting.defaultFormat");
-        var permissionFormats = config.get("formatting.permissionBasedFormats");
-        if (permissionFormats != null) {
-            List<Map<String, String>> rawPermissionFormats = TypeUtils.castAsListOfMaps(permissionFormats, null);
-            if (rawPermissionFormats != null) {
-                for (var entry : rawPermissionFormats) {
-                    String permissionKey = entry.get("group");
-                    String permissionFormat = entry.get("format");
-                    if (player.hasPermission(String.format("openmentions.format.%s", permissionKey))) {
-                        format = permissionFormat;
-                        break; // Use the first matching permission format
-                    } else {
-                        _logger.Debug("Player " + player.getName() + " does not have permission for format: " + permissionKey);
-                    }
-                }
-            }
-            else
-                _logger.Warn("Permission formats in the config are not in the expected format. Expected a list of maps.");
+        String format = PlayerCacheManager.getMentionFormat(player.getUniqueId());
+        if (format == null)
+            format = resolveFormattedMention(player);
+        return format;
+    }
+
+    /**
+     * Resolves the formatted mention string of a player and stores it in the PlayerCacheManager.
+     * Should be called when the player joins, when the configuration is reloaded, and when the player's permissions change.
+     *
+     * @param player The player whose mention format is resolved.
+     * @return The formatted mention string.
+     */
+    public static String refreshFormattedMention(Player player) {
+        String format = resolveFormattedMention(player);
+        PlayerCacheManager.setMentionFormat(player.getUniqueId(), format);
+        return format;
+    }
+
+    /**
+     * Resolves the formatted mention string of every online player.
+     */
+    public static void refreshFormattedMentions() {
+        for (var player : Bukkit.getOnlinePlayers()) {
+            refreshFormattedMention(player);
         }
-        else
-            _logger.Warn("No permission formats found in the config. Using default format.");
+    }
 
-        if (format == null || format.isEmpty()) {
-            _logger.Error("Default format is not set in the config. Please set 'formatting.defaultFormat' in the config.yml.");
-            return player.getName(); // Fallback to player name if format is not set
+    /**
+     * Resolves the formatted mention string for a player.
+     * The format is determined by the player's permissions or the default format in the configuration.
+     *
+     * @param player The player for whom the mention format is resolved.
+     * @return The formatted mention string.
+     */
+    private static String resolveFormattedMention(Player player) {
+        var config = OpenMentions.Config();
+        var permissionFormats = config.permissionBasedFormats;
+        for (int i = 0; i < permissionFormats.size(); i++) {
+            var permissionFormat = permissionFormats.get(i);
+            // Use the first matching permission format
+            if (player.hasPermission(permissionFormat.permission()))
+                return permissionFormat.apply(player.getName());
         }
-        return format.replace("%player%", player.getName());
+
+        return formatMention(player.getName());
+    }
+
+    /**
+     * Formats a mention with the default format of the configuration.
+     * Used for players whose permissions are not known, such as offline players.
+     *
+     * @param playerName The name of the mentioned player.
+     * @return The formatted mention string.
+     */
+    public static String formatMention(String playerName) {
+        String format = OpenMentions.Config().defaultFormat;
+        if (format == null || format.isEmpty())
+            return playerName; // Fallback to player name if format is not set
+        return format.replace("%player%", playerName);
     }
 
     /**
@@ -67,33 +103,36 @@ public class MentionUtils {
      *
      * @param player The player being mentioned.
      * @param mentioner The player who mentioned the target player.
+     * @return What happened to the mention.
      */
-    public static void mentionPlayer(@NotNull Player player, Player mentioner) {
+    public static EMentionResult mentionPlayer(@NotNull Player player, Player mentioner) {
         var playerId = player.getUniqueId();
         var data = PlayerCacheManager.getPlayerData(playerId);
         if (data == null) {
-            _logger.Error("Player cache not found for " + player.getName());
-            return;
+            // The data is still loading, fall back to the defaults rather than losing the mention
+            _logger.Debug("Player cache not found for " + player.getName() + ", using the default settings.");
+            data = OpenMentions.Config().createDefaultData(playerId);
         }
 
         var mentionerId = mentioner.getUniqueId();
         if (PlayerCacheManager.isOnCooldown(mentionerId))
-            return; // Do not notify
+            return EMentionResult.SUPPRESSED; // Do not notify
 
+        EMentionResult result = EMentionResult.SUPPRESSED;
         switch (data.Preference)
         {
             case ALWAYS: {
-                sendMention(player, data.SoundName, data.Display, false, mentioner);
+                result = queueMention(playerId, data.Sound, data.Display, false, mentioner);
                 break;
             }
             case SILENT_IN_COMBAT: {
-                sendMention(player, data.SoundName, data.Display, OpenMentions.CombatManager.isPlayerInCombat(player), mentioner);
+                result = queueMention(playerId, data.Sound, data.Display, OpenMentions.CombatManager.isPlayerInCombat(player), mentioner);
                 break;
             }
             case NEVER_IN_COMBAT: {
                 if (OpenMentions.CombatManager.isPlayerInCombat(player))
                     break; // Player is in combat, do not mention
-                sendMention(player, data.SoundName, data.Display, false, mentioner);
+                result = queueMention(playerId, data.Sound, data.Display, false, mentioner);
                 break;
             }
             case NEVER: {
@@ -102,42 +141,78 @@ public class MentionUtils {
             }
         }
 
+        startCooldown(mentionerId);
+        return result;
+    }
+
+    /**
+     * Handles the mention of an offline player, keeping it in their inbox until they join.
+     * The mentioner's cooldown applies the same way as for online players.
+     *
+     * @param playerId The unique identifier of the mentioned player.
+     * @param mentioner The player who mentioned the target player.
+     */
+    public static void mentionOfflinePlayer(UUID playerId, Player mentioner) {
+        var mentionerId = mentioner.getUniqueId();
+        if (PlayerCacheManager.isOnCooldown(mentionerId))
+            return; // Do not record
+
+        MentionInboxManager.record(playerId, mentioner.getName());
+        startCooldown(mentionerId);
+    }
+
+    /**
+     * Starts the mention cooldown of a player, if a cooldown is configured.
+     *
+     * @param mentionerId The unique identifier of the player who mentioned someone.
+     */
+    private static void startCooldown(UUID mentionerId) {
         var cooldownTime = OpenMentions.Config().mentionCooldown;
         if (cooldownTime < 1)
             return;
 
-        PlayerCacheManager.setCooldown(mentionerId, LocalDateTime.now().plusSeconds(cooldownTime));
+        PlayerCacheManager.setCooldown(mentionerId, TimeUnit.SECONDS.toNanos(cooldownTime));
     }
 
     /**
-     * Sends a mention notification to a player.
-     * The notification can include chat messages, action bar messages, and sounds based on the player's preferences.
+     * Queues a mention notification, to be sent on the main thread by the MentionDispatcher.
      *
-     * @param player The player to notify.
-     * @param soundKey The key of the sound to play.
+     * @param playerId The unique identifier of the player to notify.
+     * @param sound The resolved sound to play.
      * @param display The display type for the mention notification.
      * @param isSilent Whether the notification should be silent (no sound).
      * @param mentioner The player who mentioned the target player.
+     * @return Whether the notification was queued, coalesced or dropped.
      */
-    private static void sendMention(Player player, String soundKey, EMentionDisplay display, boolean isSilent, Player mentioner) {
-        String actionBarMessage = OpenMentions.Instance.getTranslator().Localize(player, "General.ActionBarMessage", Map.of("player", mentioner.getName()));
+    private static EMentionResult queueMention(UUID playerId, XSound sound, EMentionDisplay display, boolean isSilent, Player mentioner) {
+        return MentionDispatcher.enqueue(new MentionNotification(playerId, mentioner.getName(), sound, display, isSilent));
+    }
+
+    /**
+     * Sends a mention notification to a player. Must be called on the main thread.
+     * The notification can include chat messages, action bar messages, and sounds based on the player's preferences.
+     *
+     * @param player The player to notify.
+     * @param notification The notification to send.
+     */
+    public static void sendMention(Player player, MentionNotification notification) {
+        String mentionerName = notification.mentionerName();
+        XSound sound = notification.sound();
+        EMentionDisplay display = notification.display();
+        boolean isSilent = notification.isSilent();
         float volume = (float)OpenMentions.Config().volume;
         float pitch = (float)OpenMentions.Config().pitch;
-        XSound sound;
-        Optional<XSound> soundResult = SoundUtils.getSound(soundKey);
-        // Fallback sound if not found
-        sound = soundResult.orElse(XSound.ENTITY_PLAYER_LEVELUP);
 
         switch (display) {
             case ALL: {
-                OpenMentions.Instance.sendLocalizedMsg(player, "General.ChatMessage", Map.of("player", mentioner.getName()));
-                player.sendActionBar(ChatUtils.translateColors(actionBarMessage, true));
+                sendChatMessage(player, mentionerName);
+                sendActionBarMessage(player, mentionerName);
                 if (!isSilent)
                     sound.play(player, volume, pitch);
                 break;
             }
             case ONLY_CHAT: {
-                OpenMentions.Instance.sendLocalizedMsg(player, "General.ChatMessage", Map.of("player", mentioner.getName()));
+                sendChatMessage(player, mentionerName);
                 break;
             }
             case ONLY_SOUND: {
@@ -146,26 +221,46 @@ public class MentionUtils {
                 break;
             }
             case ONLY_ACTIONBAR: {
-                player.sendActionBar(ChatUtils.translateColors(actionBarMessage, true));
+                sendActionBarMessage(player, mentionerName);
                 break;
             }
             case CHAT_AND_SOUND: {
-                OpenMentions.Instance.sendLocalizedMsg(player, "General.ChatMessage", Map.of("player", mentioner.getName()));
+                sendChatMessage(player, mentionerName);
                 if (!isSilent)
                     sound.play(player, volume, pitch);
                 break;
             }
             case CHAT_AND_ACTIONBAR: {
-                OpenMentions.Instance.sendLocalizedMsg(player, "General.ChatMessage", Map.of("player", mentioner.getName()));
-                player.sendActionBar(ChatUtils.translateColors(actionBarMessage, true));
+                sendChatMessage(player, mentionerName);
+                sendActionBarMessage(player, mentionerName);
                 break;
             }
             case ACTIONBAR_AND_SOUND: {
-                player.sendActionBar(ChatUtils.translateColors(actionBarMessage, true));
+                sendActionBarMessage(player, mentionerName);
                 if (!isSilent)
                     sound.play(player, volume, pitch);
                 break;
             }
         }
     }
+
+    /**
+     * Sends the mention chat message to a player, using the precompiled template of the player's locale.
+     *
+     * @param player The player to notify.
+     * @param mentionerName The name of the player who mentioned the target player.
+     */
+    private static void sendChatMessage(Player player, String mentionerName) {
+        player.sendMessage(NotificationTemplateManager.getChatTemplate(player).apply(mentionerName));
+    }
+
+    /**
+     * Sends the mention action bar message to a player, using the precompiled template of the player's locale.
+     *
+     * @param player The player to notify.
+     * @param mentionerName The name of the player who mentioned the target player.
+     */
+    private static void sendActionBarMessage(Player player, String mentionerName) {
+        player.sendActionBar(NotificationTemplateManager.getActionBarTemplate(player).apply(mentionerName));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package io.github.tavstaldev.openMentions.utils;
+
+import io.github.tavstaldev.openMentions.models.EMentionDisplay;
+import io.github.tavstaldev.openMentions.models.EMentionPreference;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.ToIntFunction;
+
+/**
+ * Utility class holding the players table schema of the MySQL database and the migrations between its versions.
+ */
+public class MySqlMigrations {
+    /**
+     * Builds the SQL creating a players table of the current schema version.
+     * UUIDs are stored as 16 bytes and enums as their codes.
+     *
+     * @param table The name of the table.
+     * @return The SQL creating the table.
+     */
+    public static String createPlayersTableSql(String table) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "PlayerId BINARY(16) NOT NULL PRIMARY KEY, " +
+                "Sound VARCHAR(200) NOT NULL, " +
+                "Display TINYINT UNSIGNED NOT NULL, " +
+                "Preference TINYINT UNSIGNED NOT NULL);";
+    }
+
+    /**
+     * Schema version 2: moves the UUIDs from text to BINARY(16) and the enums from their names to their codes.
+     * The rows are converted on the server and the new table is swapped in with an atomic rename.
+     * Rows that can not be converted are skipped. Leftovers of an interrupted run are dropped first.
+     *
+     * @param connection The connection to use.
+     * @param table The name of the players table.
+     * @return The number of rows copied to the new table.
+     * @throws SQLException If the migration failed.
+     */
+    public static int migrateToBinary(Connection connection, String table) throws SQLException {
+        String newTable = table + "_migration";
+        String oldTable = table + "_v1";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE IF EXISTS " + newTable + ";");
+            statement.executeUpdate("DROP TABLE IF EXISTS " + oldTable + ";");
+            statement.executeUpdate(createPlayersTableSql(newTable));
+
+            int copied = statement.executeUpdate("INSERT IGNORE INTO " + newTable + " (PlayerId, Sound, Display, Preference) " +
+                    "SELECT UNHEX(REPLACE(PlayerId, '-', '')), Sound, " +
+                    codeCase("Display", EMentionDisplay.values(), EMentionDisplay::getCode) + ", " +
+                    codeCase("Preference", EMentionPreference.values(), EMentionPreference::getCode) + " " +
+                    "FROM " + table + " " +
+                    "WHERE CHAR_LENGTH(PlayerId) = 36 " +
+                    "AND Display IN (" + nameList(EMentionDisplay.values()) + ") " +
+                    "AND Preference IN (" + nameList(EMentionPreference.values()) + ");");
+
+            // Crashing after the rename is safe, the PlayerId column type identifies the new schema
+            statement.executeUpdate("RENAME TABLE " + table + " TO " + oldTable + ", " + newTable + " TO " + table + ";");
+            statement.executeUpdate("DROP TABLE " + oldTable + ";");
+            return copied;
+        }
+    }
+
+    /**
+     * Builds a CASE expression mapping the enum names stored in a column to their codes.
+     *
+     * @param column The column holding the enum names.
+     * @param values The values of the enum.
+     * @param code Gets the code of a value.
+     * @return The CASE expression.
+     */
+    static <E extends Enum<E>> String codeCase(String column, E[] values, ToIntFunction<E> code) {
+        StringBuilder builder = new StringBuilder("CASE ").append(column);
+        for (var value : values) {
+            builder.append(" WHEN '").append(value.name()).append("' THEN ").append(code.applyAsInt(value));
+        }
+        return builder.append(" END").toString();
+    }
+
+    /**
+     * Builds a quoted, comma separated list of the enum names.
+     *
+     * @param values The values of the enum.
+     * @return The list of names.
+     */
+    static String nameList(Enum<?>[] values) {
+        StringBuilder builder = new StringBuilder();
+        for (var value : values) {
+            if (!builder.isEmpty())
+                builder.append(", ");
+            builder.append('\'').append(value.name()).append('\'');
+        }
+        return builder.toString();
+    }
+}
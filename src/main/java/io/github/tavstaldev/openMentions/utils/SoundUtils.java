@@ -6,16 +6,26 @@ import io.github.tavstaldev.openMentions.OpenMentions;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for handling sound-related operations.
  * Provides methods to retrieve sound objects based on their names.
+ * Lookups are memoized in a small bounded cache, since only a handful of distinct sounds are ever used.
  */
 public class SoundUtils {
     /** Logger instance for logging messages related to SoundUtils. */
     private static final PluginLogger _logger = OpenMentions.Logger().WithModule(SoundUtils.class);
 
+    /** Sound played when a sound name can not be resolved. */
+    public static final XSound FALLBACK_SOUND = XSound.ENTITY_PLAYER_LEVELUP;
+    /** Largest number of sound names kept in the cache. */
+    private static final int MAX_CACHE_SIZE = 256;
+    /** Resolved sounds keyed by their lowercase name, including the names that could not be resolved. */
+    private static final Map<String, Optional<XSound>> _cache = new ConcurrentHashMap<>();
+
     /**
      * Retrieves an XSound object based on the provided sound name.
      *
@@ -23,18 +33,56 @@ public class SoundUtils {
      * @return An Optional containing the XSound object if found, or an empty Optional if the name is "none" or invalid.
      */
     public static Optional<XSound> getSound(@NotNull String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        var cached = _cache.get(key);
+        if (cached != null)
+            return cached;
+
+        var sound = lookupSound(key);
+        // Names come from players too, do not let made up names grow the cache forever
+        if (_cache.size() < MAX_CACHE_SIZE)
+            _cache.put(key, sound);
+        return sound;
+    }
+
+    /**
+     * Resolves a sound name, falling back to {@link #FALLBACK_SOUND} if it can not be resolved.
+     *
+     * @param name The name of the sound to resolve, or null.
+     * @return The resolved sound.
+     */
+    public static XSound resolveSound(String name) {
+        if (name == null)
+            return FALLBACK_SOUND;
+        return getSound(name).orElse(FALLBACK_SOUND);
+    }
+
+    /**
+     * Clears the cache, so every sound name is looked up again.
+     * Should be called after the configuration has been reloaded.
+     */
+    public static void clearCache() {
+        _cache.clear();
+    }
+
+    /**
+     * Looks up a sound without the cache.
+     *
+     * @param key The lowercase name of the sound.
+     * @return An Optional containing the XSound object if found, or an empty Optional if the name is "none" or invalid.
+     */
+    private static Optional<XSound> lookupSound(String key) {
         try {
-            String key = name.toLowerCase(Locale.ROOT);
             // Fixes null pointer exception
-            if ("none".equalsIgnoreCase(key))
+            if ("none".equals(key))
                 return Optional.empty();
 
             return XSound.of(key);
         }
         catch (Exception ex) {
-            _logger.Debug("Failed to get sound for name: " + name);
+            _logger.Debug("Failed to get sound for name: " + key);
             _logger.Debug("Exception: " + ex.getMessage());
             return Optional.empty();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package io.github.tavstaldev.openMentions.utils;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Utility class for converting unique identifiers to and from their compact 16 byte form,
+ * as stored in the database.
+ */
+public class UuidUtils {
+    /**
+     * Converts a UUID to 16 bytes, most significant bits first.
+     *
+     * @param uuid The UUID to convert.
+     * @return The 16 byte form of the UUID.
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Converts 16 bytes back to a UUID.
+     *
+     * @param bytes The 16 byte form of the UUID.
+     * @return The UUID.
+     * @throws IllegalArgumentException If the array is not 16 bytes long.
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16)
+            throw new IllegalArgumentException("A UUID must be 16 bytes long.");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.tavstaldev.openMentions.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CooldownTableTest {
+    private static boolean isActive(CooldownTable table, UUID playerId, long now) {
+        return table.isActive(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), now);
+    }
+
+    private static void put(CooldownTable table, UUID playerId, long deadline) {
+        table.put(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), deadline);
+    }
+
+    @Test
+    void unknownKeyIsNotOnCooldown() {
+        var table = new CooldownTable(4);
+
+        assertFalse(isActive(table, UUID.randomUUID(), 0));
+    }
+
+    @Test
+    void cooldownEndsAtItsDeadline() {
+        var table = new CooldownTable(4);
+        var playerId = UUID.randomUUID();
+        put(table, playerId, 1_000);
+
+        assertTrue(isActive(table, playerId, 999));
+        assertFalse(isActive(table, playerId, 1_000));
+        assertFalse(isActive(table, playerId, 5_000));
+    }
+
+    @Test
+    void putReplacesTheDeadline() {
+        var table = new CooldownTable(4);
+        var playerId = UUID.randomUUID();
+        put(table, playerId, 1_000);
+        put(table, playerId, 2_000);
+
+        assertEquals(1, table.size());
+        assertTrue(isActive(table, playerId, 1_500));
+    }
+
+    @Test
+    void handlesNanoTimeOverflow() {
+        var table = new CooldownTable(4);
+        var playerId = UUID.randomUUID();
+        long now = Long.MAX_VALUE - 10;
+        put(table, playerId, now + 100); // Wraps around to a negative value
+
+        assertTrue(isActive(table, playerId, now));
+        assertFalse(isActive(table, playerId, now + 100));
+    }
+
+    @Test
+    void growsPastTheExpectedSize() {
+        var table = new CooldownTable(1);
+        List<UUID> playerIds = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            var playerId = UUID.randomUUID();
+            playerIds.add(playerId);
+            put(table, playerId, 1_000 + i);
+        }
+
+        assertEquals(1_000, table.size());
+        for (var playerId : playerIds) {
+            assertTrue(isActive(table, playerId, 999));
+        }
+    }
+
+    @Test
+    void sweepRemovesOnlyExpiredEntries() {
+        var table = new CooldownTable(4);
+        List<UUID> expired = new ArrayList<>();
+        List<UUID> live = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            var playerId = UUID.randomUUID();
+            if (i % 2 == 0) {
+                put(table, playerId, 500);
+                expired.add(playerId);
+            } else {
+                put(table, playerId, 2_000);
+                live.add(playerId);
+            }
+        }
+
+        assertEquals(50, table.sweep(1_000));
+        assertEquals(50, table.size());
+        for (var playerId : live) {
+            assertTrue(isActive(table, playerId, 1_000));
+        }
+        for (var playerId : expired) {
+            assertFalse(isActive(table, playerId, 0));
+        }
+        assertEquals(0, table.sweep(1_000));
+    }
+
+    @Test
+    void concurrentReadsSeeEveryWrite() throws InterruptedException {
+        var table = new CooldownTable(1);
+        var stable = UUID.randomUUID();
+        put(table, stable, Long.MAX_VALUE);
+        List<Throwable> failures = new ArrayList<>();
+
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                if (!isActive(table, stable, 0)) {
+                    synchronized (failures) {
+                        failures.add(new AssertionError("Lost the stable entry while the table grew"));
+                    }
+                    return;
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 10_000; i++) {
+            put(table, UUID.randomUUID(), 1);
+            if (i % 1_000 == 0)
+                table.sweep(2);
+        }
+        reader.join();
+
+        assertTrue(failures.isEmpty(), failures.toString());
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.tavstaldev.openMentions.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameAutomatonTest {
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID AL = UUID.randomUUID();
+    private static final UUID LICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+
+    /**
+     * Scans the text and collects every match as "start-end:name".
+     */
+    private static List<String> scan(NameAutomaton automaton, String text) {
+        List<String> matches = new ArrayList<>();
+        automaton.scan(text, (start, end, playerId, name) -> {
+            assertEquals(name, text.substring(start, end));
+            matches.add(start + "-" + end + ":" + name);
+            return true;
+        });
+        return matches;
+    }
+
+    @Test
+    void emptyAutomatonNeverMatches() {
+        assertEquals(0, NameAutomaton.EMPTY.size());
+        assertTrue(scan(NameAutomaton.EMPTY, "hello Alice").isEmpty());
+    }
+
+    @Test
+    void findsEveryOccurrenceInOrderOfTheirEnd() {
+        var automaton = NameAutomaton.build(Map.of("Alice", ALICE, "Bob", BOB));
+
+        assertEquals(List.of("0-3:Bob", "8-13:Alice", "14-17:Bob"), scan(automaton, "Bob and Alice Bob"));
+    }
+
+    @Test
+    void reportsOverlappingAndNestedNames() {
+        var automaton = NameAutomaton.build(Map.of("Alice", ALICE, "Al", AL, "lice", LICE));
+
+        // "Al" ends first, then "Alice" and "lice" both end on the last character, the longest first
+        assertEquals(List.of("0-2:Al", "0-5:Alice", "1-5:lice"), scan(automaton, "Alice"));
+    }
+
+    @Test
+    void followsFailureLinksAfterAPartialMatch() {
+        var automaton = NameAutomaton.build(Map.of("Alice", ALICE, "lice", LICE));
+
+        assertEquals(List.of("3-7:lice", "8-13:Alice", "9-13:lice"), scan(automaton, "Alilice Alice"));
+    }
+
+    @Test
+    void reportsThePlayerOfEachName() {
+        var automaton = NameAutomaton.build(Map.of("Alice", ALICE, "Bob", BOB));
+        Map<String, UUID> found = new HashMap<>();
+
+        automaton.scan("Alice Bob", (start, end, playerId, name) -> {
+            found.put(name, playerId);
+            return true;
+        });
+
+        assertEquals(Map.of("Alice", ALICE, "Bob", BOB), found);
+    }
+
+    @Test
+    void stopsWhenTheVisitorAsksTo() {
+        var automaton = NameAutomaton.build(Map.of("Bob", BOB));
+        List<Integer> starts = new ArrayList<>();
+
+        automaton.scan("Bob Bob Bob", (start, end, playerId, name) -> {
+            starts.add(start);
+            return false;
+        });
+
+        assertEquals(List.of(0), starts);
+    }
+
+    @Test
+    void skipsEmptyNames() {
+        Map<String, UUID> names = new HashMap<>();
+        names.put("", ALICE);
+        names.put("Bob", BOB);
+        var automaton = NameAutomaton.build(names);
+
+        assertEquals(1, automaton.size());
+        assertEquals(List.of("0-3:Bob"), scan(automaton, "Bob"));
+    }
+
+    @Test
+    void isCaseSensitive() {
+        var automaton = NameAutomaton.build(Map.of("Bob", BOB));
+
+        assertTrue(scan(automaton, "bob BOB").isEmpty());
+    }
+}
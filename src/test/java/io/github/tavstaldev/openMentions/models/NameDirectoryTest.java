@@ -0,0 +1,126 @@
+package io.github.tavstaldev.openMentions.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameDirectoryTest {
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+    private static final UUID CAROL = UUID.randomUUID();
+
+    private static int find(NameDirectory directory, String name) {
+        return directory.find(name, 0, name.length());
+    }
+
+    @Test
+    void emptyDirectoryFindsNothing() {
+        assertEquals(0, NameDirectory.EMPTY.size());
+        assertEquals(-1, find(NameDirectory.EMPTY, "Alice"));
+    }
+
+    @Test
+    void findsNamesIgnoringCase() {
+        var directory = NameDirectory.build(Map.of(ALICE, "Alice", BOB, "bob_99"));
+
+        int index = find(directory, "aLiCe");
+        assertTrue(index >= 0);
+        assertEquals(ALICE, directory.getPlayerId(index));
+        assertEquals("Alice", directory.getName(index));
+
+        index = find(directory, "BOB_99");
+        assertTrue(index >= 0);
+        assertEquals(BOB, directory.getPlayerId(index));
+        assertEquals("bob_99", directory.getName(index));
+    }
+
+    @Test
+    void findsNamesInsideALongerText() {
+        var directory = NameDirectory.build(Map.of(ALICE, "Alice"));
+        String text = "hi @alice!";
+
+        int index = directory.find(text, 4, 9);
+        assertEquals(ALICE, directory.getPlayerId(index));
+        assertEquals(-1, directory.find(text, 4, 8));
+        assertEquals(-1, directory.find(text, 3, 9));
+    }
+
+    @Test
+    void doesNotMatchPrefixesOrLongerNames() {
+        var directory = NameDirectory.build(Map.of(ALICE, "Alice", BOB, "Bob"));
+
+        assertEquals(-1, find(directory, "Ali"));
+        assertEquals(-1, find(directory, "Alicea"));
+        assertEquals(-1, find(directory, "Bo"));
+        assertEquals(-1, find(directory, ""));
+    }
+
+    @Test
+    void skipsInvalidNames() {
+        Map<UUID, String> names = new HashMap<>();
+        names.put(ALICE, "Alice");
+        names.put(BOB, "not a name");
+        names.put(CAROL, "a".repeat(NameDirectory.MAX_NAME_LENGTH + 1));
+        names.put(UUID.randomUUID(), "");
+        names.put(UUID.randomUUID(), null);
+        var directory = NameDirectory.build(names);
+
+        assertEquals(1, directory.size());
+        assertEquals(-1, find(directory, "not a name"));
+    }
+
+    @Test
+    void lastPlayerWinsANameTakenTwice() {
+        Map<UUID, String> names = new LinkedHashMap<>();
+        names.put(ALICE, "Alice");
+        names.put(BOB, "ALICE");
+        var directory = NameDirectory.build(names);
+
+        assertEquals(1, directory.size());
+        int index = find(directory, "alice");
+        assertEquals(BOB, directory.getPlayerId(index));
+        assertEquals("ALICE", directory.getName(index));
+    }
+
+    @Test
+    void isPlayerComparesTheUniqueIdentifier() {
+        var directory = NameDirectory.build(Map.of(ALICE, "Alice"));
+        int index = find(directory, "Alice");
+
+        assertTrue(directory.isPlayer(index, ALICE));
+        assertFalse(directory.isPlayer(index, BOB));
+    }
+
+    @Test
+    void copyToRoundTripsEveryEntry() {
+        Map<UUID, String> names = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            names.put(UUID.randomUUID(), "Player" + i);
+        }
+        var directory = NameDirectory.build(names);
+
+        Map<UUID, String> copy = new HashMap<>();
+        directory.copyTo(copy);
+        assertEquals(names, copy);
+        for (var entry : names.entrySet()) {
+            assertEquals(entry.getKey(), directory.getPlayerId(find(directory, entry.getValue())));
+        }
+    }
+
+    @Test
+    void isNameCharAcceptsOnlyNameCharacters() {
+        for (char c : "azAZ09_".toCharArray()) {
+            assertTrue(NameDirectory.isNameChar(c));
+        }
+        for (char c : " @-.é".toCharArray()) {
+            assertFalse(NameDirectory.isNameChar(c));
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package io.github.tavstaldev.openMentions.models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordLogTest {
+    private static final int MAGIC = 0x54455354;
+    private static final int VERSION = 3;
+    private static final int MIN_PAYLOAD = 1;
+    private static final int MAX_PAYLOAD = 4096;
+
+    @TempDir
+    Path _directory;
+
+    private RecordLog open(Path path) throws IOException {
+        return RecordLog.open(path, MAGIC, VERSION, MIN_PAYLOAD, MAX_PAYLOAD);
+    }
+
+    private static void append(RecordLog log, String payload) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        log.append(bytes, 0, bytes.length);
+    }
+
+    private static List<String> replay(RecordLog log) {
+        List<String> records = new ArrayList<>();
+        log.replay((payload, length) -> records.add(new String(payload, 0, length, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    /**
+     * Overwrites bytes of a closed log file.
+     */
+    private static void overwrite(Path path, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    @Test
+    void replaysAppendedRecordsAfterReopening() throws IOException {
+        Path path = _directory.resolve("log");
+        var log = open(path);
+        assertTrue(replay(log).isEmpty());
+        append(log, "first");
+        append(log, "second");
+        int tail = log.getTail();
+        log.close();
+
+        log = open(path);
+        assertEquals(List.of("first", "second"), replay(log));
+        assertEquals(tail, log.getTail());
+        assertEquals(RecordLog.HEADER_SIZE + 2 * RecordLog.RECORD_HEADER_SIZE + "first".length() + "second".length(), tail);
+        log.close();
+    }
+
+    @Test
+    void appendsAfterTheReplayedRecords() throws IOException {
+        Path path = _directory.resolve("log");
+        var log = open(path);
+        append(log, "first");
+        log.close();
+
+        log = open(path);
+        replay(log);
+        append(log, "second");
+        log.close();
+
+        log = open(path);
+        assertEquals(List.of("first", "second"), replay(log));
+        log.close();
+    }
+
+    @Test
+    void growsPastTheInitialMapping() throws IOException {
+        Path path = _directory.resolve("log");
+        var log = open(path);
+        String payload = "x".repeat(MAX_PAYLOAD);
+        int count = 3 * RecordLog.GROW_STEP / MAX_PAYLOAD;
+        for (int i = 0; i < count; i++) {
+            append(log, payload);
+        }
+        log.close();
+        assertTrue(Files.size(path) > RecordLog.GROW_STEP);
+
+        log = open(path);
+        assertEquals(count, replay(log).size());
+        log.close();
+    }
+
+    @Test
+    void corruptRecordEndsTheLogAndIsCleared() throws IOException {
+        Path path = _directory.resolve("log");
+        var log = open(path);
+        append(log, "first");
+        append(log, "second");
+        append(log, "third");
+        log.close();
+
+        // Flip a byte in the payload of the second record
+        long second = RecordLog.HEADER_SIZE + RecordLog.RECORD_HEADER_SIZE + "first".length();
+        overwrite(path, second + RecordLog.RECORD_HEADER_SIZE, new byte[] { 'S' });
+
+        log = open(path);
+        List<String> records = new ArrayList<>();
+        assertTrue(log.replay((payload, length) -> records.add(new String(payload, 0, length, StandardCharsets.UTF_8))));
+        assertEquals(List.of("first"), records);
+        assertEquals(second, log.getTail());
+        append(log, "fourth");
+        log.close();
+
+        // The third record has been cleared, it can never reappear behind the new one
+        log = open(path);
+        assertEquals(List.of("first", "fourth"), replay(log));
+        log.close();
+    }
+
+    @Test
+    void invalidLengthEndsTheLog() throws IOException {
+        Path path = _directory.resolve("log");
+        var log = open(path);
+        append(log, "first");
+        append(log, "second");
+        log.close();
+
+        long second = RecordLog.HEADER_SIZE + RecordLog.RECORD_HEADER_SIZE + "first".length();
+        overwrite(path, second, ByteBuffer.allocate(4).putInt(MAX_PAYLOAD + 1).array());
+
+        log = open(path);
+        List<String> records = new ArrayList<>();
+        assertTrue(log.replay((payload, length) -> records.add(new String(payload, 0, length, StandardCharsets.UTF_8))));
+        assertEquals(List.of("first"), records);
+        log.close();
+    }
+
+    @Test
+    void intactLogIsNotReportedDamaged() throws IOException {
+        var log = open(_directory.resolve("log"));
+        append(log, "first");
+
+        assertFalse(log.replay((payload, length) -> { }));
+        log.close();
+    }
+
+    @Test
+    void keepsTheVersionOfTheFile() throws IOException {
+        Path path = _directory.resolve("log");
+        var log = open(path);
+        assertEquals(VERSION, log.getVersion());
+        log.setVersion(VERSION + 1);
+        log.close();
+
+        log = RecordLog.open(path, MAGIC, VERSION, MIN_PAYLOAD, MAX_PAYLOAD);
+        assertEquals(VERSION + 1, log.getVersion());
+        log.close();
+    }
+
+    @Test
+    void refusesAFileWithAnotherMagicNumber() throws IOException {
+        Path path = _directory.resolve("log");
+        Files.write(path, new byte[] { 1, 2, 3, 4, 0, 0, 0, 1 });
+
+        assertThrows(IOException.class, () -> open(path));
+        // The file is left untouched and released
+        assertEquals(8, Files.size(path));
+        Files.delete(path);
+    }
+
+    @Test
+    void refusesInvalidRecords() throws IOException {
+        var log = open(_directory.resolve("log"));
+
+        assertThrows(IOException.class, () -> log.append(new byte[0], 0, 0));
+        assertThrows(IOException.class, () -> log.append(new byte[MAX_PAYLOAD + 1], 0, MAX_PAYLOAD + 1));
+        log.close();
+        assertThrows(IOException.class, () -> append(log, "closed"));
+        // Closing twice does nothing
+        log.close();
+    }
+
+    @Test
+    void closedLogCanBeReplacedLikeACompaction() throws IOException {
+        Path livePath = _directory.resolve("log");
+        Path compactPath = _directory.resolve("log.compact");
+        var live = open(livePath);
+        for (int i = 0; i < 100; i++) {
+            append(live, "old " + i);
+        }
+        append(live, "kept");
+        live.close();
+
+        var compact = open(compactPath);
+        append(compact, "kept");
+        compact.close();
+
+        // Both mappings have been released, so the swap works even where mapped files can not be replaced
+        Files.move(compactPath, livePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        live = open(livePath);
+        assertEquals(List.of("kept"), replay(live));
+        assertEquals(RecordLog.HEADER_SIZE + RecordLog.RECORD_HEADER_SIZE + "kept".length(), live.getTail());
+        live.close();
+        assertFalse(Files.exists(compactPath));
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.tavstaldev.openMentions.utils;
+
+import io.github.tavstaldev.openMentions.models.EMentionDisplay;
+import io.github.tavstaldev.openMentions.models.EMentionPreference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the migrations against a real MySQL server. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MySqlMigrationsContainerTest {
+    private static final String TABLE = "om_players";
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private Connection _connection;
+
+    @BeforeEach
+    void connect() throws SQLException {
+        _connection = DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        try (Statement statement = _connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE IF EXISTS " + TABLE + ";");
+            // The players table of schema version 1
+            statement.executeUpdate("CREATE TABLE " + TABLE + " (" +
+                    "PlayerId VARCHAR(36) PRIMARY KEY, " +
+                    "Sound VARCHAR(200) NOT NULL, " +
+                    "Display VARCHAR(32) NOT NULL, " +
+                    "Preference VARCHAR(32) NOT NULL);");
+        }
+    }
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        _connection.close();
+    }
+
+    private void insertV1(String playerId, String sound, String display, String preference) throws SQLException {
+        try (PreparedStatement statement = _connection.prepareStatement("INSERT INTO " + TABLE + " VALUES (?, ?, ?, ?);")) {
+            statement.setString(1, playerId);
+            statement.setString(2, sound);
+            statement.setString(3, display);
+            statement.setString(4, preference);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads the migrated rows as "sound/display/preference", keyed by the player's unique identifier.
+     */
+    private Map<UUID, String> readV2() throws SQLException {
+        Map<UUID, String> rows = new HashMap<>();
+        try (Statement statement = _connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT PlayerId, Sound, Display, Preference FROM " + TABLE + ";")) {
+            while (result.next()) {
+                rows.put(UuidUtils.fromBytes(result.getBytes("PlayerId")), result.getString("Sound") + "/" +
+                        EMentionDisplay.fromCode(result.getInt("Display")) + "/" +
+                        EMentionPreference.fromCode(result.getInt("Preference")));
+            }
+        }
+        return rows;
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        try (ResultSet result = _connection.getMetaData().getTables(_connection.getCatalog(), null, table, null)) {
+            return result.next();
+        }
+    }
+
+    @Test
+    void convertsIdsAndEnums() throws SQLException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        insertV1(first.toString(), "entity.player.levelup", "ALL", "ALWAYS");
+        insertV1(second.toString(), "block.note_block.pling", "ONLY_CHAT", "NEVER_IN_COMBAT");
+
+        assertEquals(2, MySqlMigrations.migrateToBinary(_connection, TABLE));
+
+        assertEquals(Map.of(
+                first, "entity.player.levelup/ALL/ALWAYS",
+                second, "block.note_block.pling/ONLY_CHAT/NEVER_IN_COMBAT"
+        ), readV2());
+        assertFalse(tableExists(TABLE + "_migration"));
+        assertFalse(tableExists(TABLE + "_v1"));
+    }
+
+    @Test
+    void skipsRowsThatCanNotBeConverted() throws SQLException {
+        UUID valid = UUID.randomUUID();
+        insertV1(valid.toString(), "entity.player.levelup", "ALL", "NEVER");
+        insertV1("not-a-uuid", "entity.player.levelup", "ALL", "NEVER");
+        insertV1(UUID.randomUUID().toString(), "entity.player.levelup", "UNKNOWN", "NEVER");
+        insertV1(UUID.randomUUID().toString(), "entity.player.levelup", "ALL", "UNKNOWN");
+
+        assertEquals(1, MySqlMigrations.migrateToBinary(_connection, TABLE));
+
+        assertEquals(Map.of(valid, "entity.player.levelup/ALL/NEVER"), readV2());
+    }
+
+    @Test
+    void recoversFromAnInterruptedRun() throws SQLException {
+        UUID playerId = UUID.randomUUID();
+        insertV1(playerId.toString(), "entity.player.levelup", "ALL", "ALWAYS");
+        // Leftover of a run that crashed before the rename
+        try (Statement statement = _connection.createStatement()) {
+            statement.executeUpdate(MySqlMigrations.createPlayersTableSql(TABLE + "_migration"));
+        }
+
+        assertEquals(1, MySqlMigrations.migrateToBinary(_connection, TABLE));
+
+        assertEquals(Map.of(playerId, "entity.player.levelup/ALL/ALWAYS"), readV2());
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.tavstaldev.openMentions.utils;
+
+import io.github.tavstaldev.openMentions.models.EMentionDisplay;
+import io.github.tavstaldev.openMentions.models.EMentionPreference;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MySqlMigrationsTest {
+    @Test
+    void codeCaseMapsEveryNameToItsCode() {
+        String sql = MySqlMigrations.codeCase("Preference", EMentionPreference.values(), EMentionPreference::getCode);
+
+        assertEquals("CASE Preference WHEN 'ALWAYS' THEN 0 WHEN 'NEVER_IN_COMBAT' THEN 1 " +
+                "WHEN 'SILENT_IN_COMBAT' THEN 2 WHEN 'NEVER' THEN 3 END", sql);
+    }
+
+    @Test
+    void codeCaseCoversEveryValue() {
+        String sql = MySqlMigrations.codeCase("Display", EMentionDisplay.values(), EMentionDisplay::getCode);
+
+        for (var display : EMentionDisplay.values()) {
+            assertTrue(sql.contains(" WHEN '" + display.name() + "' THEN " + display.getCode() + " "), display.name());
+        }
+    }
+
+    @Test
+    void nameListQuotesEveryName() {
+        assertEquals("'ALWAYS', 'NEVER_IN_COMBAT', 'SILENT_IN_COMBAT', 'NEVER'", MySqlMigrations.nameList(EMentionPreference.values()));
+    }
+
+    @Test
+    void playersTableStoresBinaryIdsAndCodes() {
+        String sql = MySqlMigrations.createPlayersTableSql("om_players");
+
+        assertTrue(sql.startsWith("CREATE TABLE IF NOT EXISTS om_players ("));
+        assertTrue(sql.contains("PlayerId BINARY(16) NOT NULL PRIMARY KEY"));
+        assertTrue(sql.contains("Display TINYINT UNSIGNED NOT NULL"));
+        assertTrue(sql.contains("Preference TINYINT UNSIGNED NOT NULL"));
+    }
+}